@@ -0,0 +1,86 @@
+package com.crewmeister.cmcodingchallenge.benchmarks;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting an amount with a published rate and rounding the result to 4 decimals: the
+ * {@link FixedPoint#convert(double, int, long, int, int)} call getFXAmount makes, from the double amount on,
+ * against the BigDecimal rounding of the double quotient it replaced. Amounts too large for 8 decimals in a long
+ * take the BigDecimal fallback of the same call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    private static final int AMOUNT_SCALE = 8;
+
+    private static final int RATE_SCALE = 4;
+
+    private static final int RESULT_SCALE = 4;
+
+    private static final int SAMPLES = 1024;
+
+    private double[] amounts;
+
+    private double[] largeAmounts;
+
+    private long[] rateUnits;
+
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new double[SAMPLES];
+        largeAmounts = new double[SAMPLES];
+        rateUnits = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            amounts[i] = Math.round(random.nextDouble() * 1_000_000) / 100.0;
+            largeAmounts[i] = 1e11 + amounts[i] * 1e9;
+            rateUnits[i] = 5_000 + random.nextInt(1_600_000);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SAMPLES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public double fixedPoint() {
+        int i = nextIndex();
+        return FixedPoint.convert(amounts[i], AMOUNT_SCALE, rateUnits[i], RATE_SCALE, RESULT_SCALE);
+    }
+
+    @Benchmark
+    public double fixedPointLargeAmount() {
+        int i = nextIndex();
+        return FixedPoint.convert(largeAmounts[i], AMOUNT_SCALE, rateUnits[i], RATE_SCALE, RESULT_SCALE);
+    }
+
+    @Benchmark
+    public double bigDecimalRounding() {
+        int i = nextIndex();
+        double rate = FixedPoint.toDouble(rateUnits[i], RATE_SCALE);
+        return new BigDecimal(amounts[i] / rate).setScale(RESULT_SCALE, RoundingMode.HALF_UP).doubleValue();
+    }
+}
@@ -0,0 +1,96 @@
+package com.crewmeister.cmcodingchallenge.benchmarks;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.xmldata.GenericData;
+import com.crewmeister.cmcodingchallenge.xmldata.Observation;
+import com.crewmeister.cmcodingchallenge.xmldata.SdmxRateReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up the rate of one date, as getFXRates and getFXAmount do for every request: the O(1) offset
+ * lookup in {@link CurrencyRateTable} against the scan over the bound {@link GenericData} observations
+ * the service used to run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int DAYS = 9800;
+
+    private static final int DATES = 1024;
+
+    private CurrencyRateTable table;
+
+    private GenericData genericData;
+
+    private LocalDate[] dates;
+
+    private String[] dateStrings;
+
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] payload = SdmxFixtures.payload(DAYS);
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        new SdmxRateReader().read(new ByteArrayInputStream(payload), builder);
+        table = builder.build();
+        genericData = Jackson2ObjectMapperBuilder.xml().build().readValue(payload, GenericData.class);
+
+        // Spread the requested dates over the series, weekends included, in a fixed order
+        dates = new LocalDate[DATES];
+        dateStrings = new String[DATES];
+        for (int i = 0; i < DATES; i++) {
+            dates[i] = SdmxFixtures.SERIES_START.plusDays((i * 7919L) % DAYS);
+            dateStrings[i] = dates[i].toString();
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (DATES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public String tableExact() {
+        long units = table.getUnits(dates[nextIndex()]);
+        return units == FixedPoint.MISSING ? null : table.formatRate(units);
+    }
+
+    @Benchmark
+    public String tablePreviousBusinessDay() {
+        int offset = table.resolveOffset(dates[nextIndex()], RateResolution.PREVIOUS);
+        return offset < 0 ? null : table.formatRate(table.getUnitsAt(offset));
+    }
+
+    @Benchmark
+    public String observationScan() {
+        String date = dateStrings[nextIndex()];
+        for (Observation obs : genericData.dataSet.series.observations) {
+            if (obs.dimension.date.equals(date) && obs.value != null)
+                return obs.value.rate;
+        }
+        return null;
+    }
+}
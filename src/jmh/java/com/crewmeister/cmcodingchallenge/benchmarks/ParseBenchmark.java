@@ -0,0 +1,66 @@
+package com.crewmeister.cmcodingchallenge.benchmarks;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.xmldata.GenericData;
+import com.crewmeister.cmcodingchallenge.xmldata.SdmxRateReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a Bundesbank SDMX download: the streaming {@link SdmxRateReader} the service uses against
+ * Jackson XML binding into {@link GenericData}, configured as the RestTemplate's XML converter does it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    /**
+     * Calendar days of the series; 0 is the recorded fixture, 9800 roughly the full history since 1999.
+     */
+    @Param({"0", "9800"})
+    public int days;
+
+    private byte[] payload;
+
+    private SdmxRateReader rateReader;
+
+    private ObjectMapper xmlMapper;
+
+    @Setup
+    public void setUp() {
+        payload = SdmxFixtures.payload(days);
+        rateReader = new SdmxRateReader();
+        xmlMapper = Jackson2ObjectMapperBuilder.xml().build();
+    }
+
+    @Benchmark
+    public CurrencyRateTable streamRateTable() throws IOException {
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        rateReader.read(new ByteArrayInputStream(payload), builder);
+        return builder.build();
+    }
+
+    @Benchmark
+    public GenericData bindGenericData() throws IOException {
+        return xmlMapper.readValue(payload, GenericData.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.crewmeister.cmcodingchallenge.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SDMX payloads the benchmarks run against, so no benchmark touches the network. The recorded Bundesbank
+ * fixture is used as is, and for full-history sizes its header and observations are repeated day by day,
+ * giving a document of the same shape as a real download of the whole series.
+ */
+final class SdmxFixtures {
+
+    static final String FIXTURE = "/sdmx/BBEX3.D.USD.EUR.BB.AC.000.xml";
+
+    /**
+     * First day of the Bundesbank daily euro reference rates.
+     */
+    static final LocalDate SERIES_START = LocalDate.of(1999, 1, 4);
+
+    private static final Pattern OBS_VALUE = Pattern.compile("<generic:ObsValue value=\"([^\"]+)\"/>");
+
+    private SdmxFixtures() {
+    }
+
+    /**
+     * @param days number of calendar days of the series, or 0 for the recorded fixture
+     */
+    static byte[] payload(int days) {
+        byte[] fixture = recorded();
+        return days == 0 ? fixture : history(new String(fixture, StandardCharsets.UTF_8), days);
+    }
+
+    static byte[] recorded() {
+        try (InputStream in = SdmxFixtures.class.getResourceAsStream(FIXTURE)) {
+            if (in == null)
+                throw new IllegalStateException("Missing fixture " + FIXTURE);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            in.transferTo(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] history(String fixture, int days) {
+        int firstObs = fixture.indexOf("<generic:Obs>");
+        int end = fixture.lastIndexOf("</generic:Series>");
+        Matcher matcher = OBS_VALUE.matcher(fixture.substring(firstObs, end));
+        StringBuilder rates = new StringBuilder();
+        while (matcher.find())
+            rates.append(matcher.group(1)).append(' ');
+        String[] published = rates.toString().trim().split(" ");
+
+        StringBuilder xml = new StringBuilder(fixture.substring(0, firstObs));
+        LocalDate date = SERIES_START;
+        for (int day = 0; day < days; day++, date = date.plusDays(1)) {
+            xml.append("<generic:Obs>\n<generic:ObsDimension value=\"").append(date).append("\"/>\n");
+            if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                xml.append("<generic:ObsValue value=\"").append(published[day % published.length]).append("\"/>\n")
+                        .append("<generic:Attributes><generic:Value id=\"BBK_OBS_STATUS\" value=\"A\"/></generic:Attributes>\n");
+            } else {
+                xml.append("<generic:Attributes><generic:Value id=\"BBK_OBS_STATUS\" value=\"K\"/>")
+                        .append("<generic:Value id=\"BBK_DIFF_COMMENT\" value=\"no value available\"/></generic:Attributes>\n");
+            }
+            xml.append("</generic:Obs>\n");
+        }
+        xml.append(fixture.substring(end));
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,134 @@
+package com.crewmeister.cmcodingchallenge.benchmarks;
+
+import com.crewmeister.cmcodingchallenge.currency.Currency;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currency.RateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyServiceImpl;
+import com.crewmeister.cmcodingchallenge.xmldata.SdmxRateReader;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Building and serializing the {@code Map<String, Map<String, String>>} getAllFXRates responds with, and the
+ * {@link RateMatrix} of v2/getAllFXRates, for one currency over the whole history and for a single day across
+ * many currencies. Both are built by {@link CurrencyServiceImpl} over an {@link FXRateStore} holding the same
+ * series for every currency; only the currency repository is stubbed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int DAYS = 9800;
+
+    /**
+     * Number of currencies in the response; the whole series is returned for one, a single day for more.
+     */
+    @Param({"1", "40"})
+    public int currencies;
+
+    private CurrencyService currencyService;
+
+    /**
+     * The one currency asked for, or null for all of them.
+     */
+    private String currency;
+
+    /**
+     * The last published day for many currencies, or null for the whole history.
+     */
+    private LocalDate date;
+
+    private Map<String, Map<String, String>> response;
+
+    private RateMatrix matrix;
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() throws IOException {
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        new SdmxRateReader().read(new ByteArrayInputStream(SdmxFixtures.payload(DAYS)), builder);
+        CurrencyRateTable table = builder.build();
+
+        FXRateStore rateStore = new FXRateStore();
+        CurrencyRepository currencyRepository = mock(CurrencyRepository.class);
+        List<Currency> available = new ArrayList<>();
+        for (int i = 0; i < currencies; i++) {
+            CurrencyConstants ccy = currencies == 1 ? CurrencyConstants.USD : CurrencyConstants.values()[i];
+            rateStore.putTable(ccy, table);
+            available.add(new Currency((long) i + 1, ccy.name()));
+        }
+        when(currencyRepository.findAll()).thenReturn(available);
+        when(currencyRepository.findCurrencyName("USD")).thenReturn(Optional.of(available.get(0)));
+        currencyService = new CurrencyServiceImpl(null, currencyRepository, rateStore, null, null, null);
+        if (currencies == 1)
+            currency = "USD";
+        else
+            date = table.getDateAt(table.resolveOffset(table.getLastDate(), RateResolution.PREVIOUS));
+
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        response = buildResponse();
+        matrix = buildMatrix();
+    }
+
+    private Map<String, Map<String, String>> buildResponse() {
+        return currencyService.getFXRates(date != null ? date.toString() : null, currency, RateResolution.EXACT);
+    }
+
+    private RateMatrix buildMatrix() {
+        return currencyService.getRateMatrix(date, currency, RateResolution.EXACT);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(buildResponse());
+    }
+
+    @Benchmark
+    public byte[] serializeMatrix() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(matrix);
+    }
+
+    @Benchmark
+    public byte[] buildAndSerializeMatrix() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(buildMatrix());
+    }
+}
@@ -0,0 +1,111 @@
+package com.crewmeister.cmcodingchallenge;
+
+import com.crewmeister.cmcodingchallenge.currencycontroller.RateResponseCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String AVAILABLE_CURRENCIES = "availableCurrencies";
+
+    public static final String CURRENCY_BY_NAME = "currencyByName";
+
+    public static final String CROSS_RATE_MATRICES = "crossRateMatrices";
+
+    public static final String RATE_RESPONSES = "rateResponses";
+
+    @Value("${fx.cache.max.size}")
+    private long maxSize;
+
+    @Value("${fx.response.cache.max.bytes}")
+    private long responseCacheMaxBytes;
+
+    @Value("${fx.cache.publication.time}")
+    private String publicationTime;
+
+    @Value("${fx.cache.publication.zone}")
+    private String publicationZone;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(boundedUntilNextPublication());
+        cacheManager.registerCustomCache(AVAILABLE_CURRENCIES, boundedUntilNextPublication().build());
+        cacheManager.registerCustomCache(CURRENCY_BY_NAME, boundedUntilNextPublication().build());
+        cacheManager.registerCustomCache(CROSS_RATE_MATRICES, boundedUntilNextPublication().build());
+        cacheManager.registerCustomCache(RATE_RESPONSES, boundedByResponseBytes().build());
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> boundedUntilNextPublication() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilNextPublication(LocalTime.parse(publicationTime), ZoneId.of(publicationZone), Clock.systemUTC()))
+                .recordStats();
+    }
+
+    /**
+     * The cached responses never change, so they do not expire and are only evicted to stay within the byte bound.
+     */
+    private Caffeine<Object, Object> boundedByResponseBytes() {
+        return Caffeine.newBuilder()
+                .maximumWeight(responseCacheMaxBytes)
+                .weigher((Object key, Object value) -> ((RateResponseCache.Entry) value).size())
+                .recordStats();
+    }
+
+    /**
+     * Expires entries at the next daily Bundesbank publication, so cached values never outlive the data they were read from.
+     */
+    static final class UntilNextPublication implements Expiry<Object, Object> {
+
+        private final LocalTime publicationTime;
+
+        private final ZoneId zone;
+
+        private final Clock clock;
+
+        UntilNextPublication(LocalTime publicationTime, ZoneId zone, Clock clock) {
+            this.publicationTime = publicationTime;
+            this.zone = zone;
+            this.clock = clock;
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return nanosUntilNextPublication();
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return nanosUntilNextPublication();
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private long nanosUntilNextPublication() {
+            ZonedDateTime now = ZonedDateTime.now(clock.withZone(zone));
+            ZonedDateTime nextPublication = now.with(publicationTime);
+            if (!nextPublication.isAfter(now))
+                nextPublication = nextPublication.plusDays(1);
+            return Duration.between(now, nextPublication).toNanos();
+        }
+    }
+}
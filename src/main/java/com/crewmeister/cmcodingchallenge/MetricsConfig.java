@@ -0,0 +1,50 @@
+package com.crewmeister.cmcodingchallenge;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application meters beyond the ones Spring Boot binds on its own (HTTP server requests, the Caffeine caches,
+ * the JVM): the in-memory rate store and the single-flight rate loader. The download meters are recorded by
+ * {@link com.crewmeister.cmcodingchallenge.currencyservice.FXRateMetrics}.
+ * <p>
+ * The rate loader is looked up when the meters are read: it depends on the downloads, which record into the
+ * meter registry that binds these meters.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder rateStoreMetrics(FXRateStore rateStore, ObjectProvider<FXRateLoader> rateLoader) {
+        return registry -> {
+            Gauge.builder("fx.store.series", rateStore, FXRateStore::size)
+                    .description("Currencies with a rate series held in memory")
+                    .register(registry);
+            FunctionCounter.builder("fx.store.lookups", rateStore, FXRateStore::getHitCount)
+                    .description("Rate series lookups in the in-memory store")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("fx.store.lookups", rateStore, FXRateStore::getMissCount)
+                    .description("Rate series lookups in the in-memory store")
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("fx.fetch.requests", rateLoader, loader -> loader.getObject().getStartedCount())
+                    .description("Rate series downloads, whether on demand, by the scheduled refresh or at startup")
+                    .tag("result", "started")
+                    .register(registry);
+            FunctionCounter.builder("fx.fetch.requests", rateLoader, loader -> loader.getObject().getCoalescedCount())
+                    .description("Rate series downloads, whether on demand, by the scheduled refresh or at startup")
+                    .tag("result", "coalesced")
+                    .register(registry);
+            Gauge.builder("fx.fetch.in.flight", rateLoader, loader -> loader.getObject().getInFlightCount())
+                    .description("Rate series loads currently running")
+                    .register(registry);
+        };
+    }
+}
@@ -1,12 +1,18 @@
 package com.crewmeister.cmcodingchallenge;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConverter;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class RestTemplateConfig {
 
@@ -16,13 +22,46 @@ public class RestTemplateConfig {
     @Value("${rest.template.read.timeout}")
     private int readTimeout;
 
+    @Value("${rest.template.pool.max.total}")
+    private int poolMaxTotal;
+
+    @Value("${rest.template.pool.max.per.route}")
+    private int poolMaxPerRoute;
+
+    @Value("${rest.template.pool.idle.eviction}")
+    private long idleEviction;
+
+    @Value("${rest.template.keep.alive}")
+    private long keepAlive;
+
+    /**
+     * Pooled client so Bundesbank calls reuse kept-alive connections instead of a new TCP and TLS handshake per fetch.
+     * Gzip and deflate responses are requested and decompressed by the client's default content compression.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient bundesbankHttpClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(poolMaxTotal);
+        connectionManager.setDefaultMaxPerRoute(poolMaxPerRoute);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectionTimeout) // in milliseconds
+                .setConnectionRequestTimeout(connectionTimeout) // wait for a pooled connection, in milliseconds
+                .setSocketTimeout(readTimeout) // in milliseconds
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(connectionTimeout); // in milliseconds
-        factory.setReadTimeout(readTimeout); // in milliseconds
-        RestTemplate restTemplate = new RestTemplate(factory);
-        restTemplate.getMessageConverters().add(new MappingJackson2XmlHttpMessageConverter());
-        return restTemplate;
+    public RestTemplate restTemplate(CloseableHttpClient bundesbankHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(bundesbankHttpClient));
     }
 }
@@ -0,0 +1,80 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All cross rates between the currencies quoted on one day, derived from their EUR rates.
+ * The N x N table is computed once when the matrix is built, each cell as one fixed-point division rounded
+ * HALF_UP to {@link #SCALE} decimals; lookups are array reads.
+ */
+public final class CrossRateMatrix {
+
+    public static final int SCALE = 6;
+
+    private final LocalDate date;
+
+    private final String[] currencies;
+
+    private final Map<String, Integer> indexByCurrency;
+
+    private final double[] crossRates;
+
+    private final Map<String, Map<String, Double>> table;
+
+    /**
+     * @param currencies the currencies quoted on the date, in the order they are presented
+     * @param eurUnits the unscaled EUR rate of each currency (EUR 1 = x units), EUR itself being 1
+     * @param scales the scale of each currency's EUR rate
+     */
+    public CrossRateMatrix(LocalDate date, String[] currencies, long[] eurUnits, int[] scales) {
+        this.date = date;
+        this.currencies = currencies.clone();
+        int size = currencies.length;
+        this.indexByCurrency = new HashMap<>();
+        this.crossRates = new double[size * size];
+        Map<String, Map<String, Double>> rows = new LinkedHashMap<>();
+        for (int from = 0; from < size; from++) {
+            indexByCurrency.put(currencies[from], from);
+            Map<String, Double> row = new LinkedHashMap<>();
+            for (int to = 0; to < size; to++) {
+                double rate = FixedPoint.toDouble(
+                        FixedPoint.divide(eurUnits[to], scales[to], eurUnits[from], scales[from], SCALE), SCALE);
+                crossRates[from * size + to] = rate;
+                row.put(currencies[to], rate);
+            }
+            rows.put(currencies[from], Collections.unmodifiableMap(row));
+        }
+        this.table = Collections.unmodifiableMap(rows);
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public boolean contains(String currency) {
+        return indexByCurrency.containsKey(currency);
+    }
+
+    /**
+     * @return units of {@code to} per unit of {@code from} at {@link #SCALE} decimals, or NaN if either currency
+     *         has no rate on this day
+     */
+    public double getRate(String from, String to) {
+        Integer fromIndex = indexByCurrency.get(from);
+        Integer toIndex = indexByCurrency.get(to);
+        if (fromIndex == null || toIndex == null)
+            return Double.NaN;
+        return crossRates[fromIndex * currencies.length + toIndex];
+    }
+
+    /**
+     * @return the rounded cross rates as rows of "from" currency to columns of "to" currency
+     */
+    public Map<String, Map<String, Double>> getTable() {
+        return table;
+    }
+}
@@ -1,18 +1,29 @@
 package com.crewmeister.cmcodingchallenge.currency;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotBlank;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_currency_name", columnNames = "currency_name"))
 public class Currency {
 
+    /**
+     * Ids come from a pooled sequence, so a batch of new currencies needs one sequence call per 50 ids.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_seq")
+    @SequenceGenerator(name = "currency_seq", sequenceName = "currency_seq", allocationSize = 50)
     private Long currencyId;
 
     @NotBlank(message = "Currency name must not be blank")
+    @Column(name = "currency_name", nullable = false)
     private String currencyName;
 
     public Currency() {
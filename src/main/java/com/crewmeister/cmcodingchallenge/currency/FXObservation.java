@@ -0,0 +1,66 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.time.LocalDate;
+
+/**
+ * One published daily EUR rate of a currency, keyed by (currency, date). The rate is stored unscaled
+ * with its scale, as in {@link FixedPoint}. The table only restores series into the in-memory rate store, which
+ * serves the rate lookups: the primary key orders the series of a currency and finds its latest date.
+ */
+@Entity
+@IdClass(FXObservationId.class)
+@Table(name = "fx_observation")
+public class FXObservation {
+
+    @Id
+    @Column(name = "currency", length = 3, nullable = false)
+    private String currency;
+
+    @Id
+    @Column(name = "obs_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "rate_units", nullable = false)
+    private long rateUnits;
+
+    @Column(name = "rate_scale", nullable = false)
+    private int rateScale;
+
+    public FXObservation() {
+    }
+
+    public FXObservation(String currency, LocalDate date, long rateUnits, int rateScale) {
+        this.currency = currency;
+        this.date = date;
+        this.rateUnits = rateUnits;
+        this.rateScale = rateScale;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getRateUnits() {
+        return rateUnits;
+    }
+
+    public int getRateScale() {
+        return rateScale;
+    }
+
+    /**
+     * @return the rate with its published number of decimals, e.g. "95.8200"
+     */
+    public String formatRate() {
+        return FixedPoint.format(rateUnits, rateScale);
+    }
+}
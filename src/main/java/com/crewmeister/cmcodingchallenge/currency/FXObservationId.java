@@ -0,0 +1,43 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class FXObservationId implements Serializable {
+
+    private String currency;
+
+    private LocalDate date;
+
+    public FXObservationId() {
+    }
+
+    public FXObservationId(String currency, LocalDate date) {
+        this.currency = currency;
+        this.date = date;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof FXObservationId))
+            return false;
+        FXObservationId that = (FXObservationId) o;
+        return Objects.equals(currency, that.currency) && Objects.equals(date, that.date);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currency, date);
+    }
+}
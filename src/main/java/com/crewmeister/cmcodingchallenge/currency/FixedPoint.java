@@ -0,0 +1,187 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Decimal arithmetic on scaled longs: a value of {@code units} at {@code scale} stands for
+ * {@code units / 10^scale}. Parsing, rescaling and HALF_UP division are exact and allocation free;
+ * only a result that would overflow a long falls back to {@link BigDecimal}.
+ */
+public final class FixedPoint {
+
+    /**
+     * Marks a day without a published value.
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_SCALE; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+
+    private FixedPoint() {
+    }
+
+    public static long powerOfTen(int scale) {
+        return POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Parses a plain decimal such as "162.40" into its unscaled value, 16240; the scale is the number of decimals.
+     */
+    public static long parseUnscaled(String decimal) {
+        int length = decimal.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (decimal.charAt(0) == '-' || decimal.charAt(0) == '+')) {
+            negative = decimal.charAt(0) == '-';
+            i++;
+        }
+        if (i == length)
+            throw new NumberFormatException("Invalid decimal: " + decimal);
+        long units = 0;
+        boolean decimalPoint = false;
+        for (; i < length; i++) {
+            char c = decimal.charAt(i);
+            if (c == '.' && !decimalPoint) {
+                decimalPoint = true;
+            } else if (c >= '0' && c <= '9') {
+                units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+            } else {
+                throw new NumberFormatException("Invalid decimal: " + decimal);
+            }
+        }
+        return negative ? -units : units;
+    }
+
+    public static int scaleOf(String decimal) {
+        int decimalPoint = decimal.indexOf('.');
+        return decimalPoint >= 0 ? decimal.length() - decimalPoint - 1 : 0;
+    }
+
+    /**
+     * Rounds a double to {@code scale} decimals, e.g. an amount taken from a request parameter.
+     *
+     * @throws IllegalArgumentException if the value does not fit a long at that scale
+     */
+    public static long fromDouble(double value, int scale) {
+        if (!fits(value, scale))
+            throw new IllegalArgumentException("Value " + value + " does not fit " + scale + " decimals");
+        return Math.round(value * POWERS_OF_TEN[scale]);
+    }
+
+    /**
+     * Tells whether {@link #fromDouble} can represent the value at {@code scale}; above about 9.2e10 at 8
+     * decimals the rounded value would saturate at {@link Long#MAX_VALUE}.
+     */
+    public static boolean fits(double value, int scale) {
+        return Math.abs(value * POWERS_OF_TEN[scale]) < 0x1p63;
+    }
+
+    public static double toDouble(long units, int scale) {
+        return units == MISSING ? Double.NaN : (double) units / POWERS_OF_TEN[scale];
+    }
+
+    /**
+     * Raises {@code units} from {@code scale} to the larger {@code newScale} without loss.
+     */
+    public static long rescale(long units, int scale, int newScale) {
+        if (units == MISSING || scale == newScale)
+            return units;
+        return Math.multiplyExact(units, POWERS_OF_TEN[newScale - scale]);
+    }
+
+    /**
+     * Divides {@code numerator} by {@code denominator}, rounding the quotient HALF_UP (half away from zero).
+     */
+    public static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(denominator) - Math.abs(remainder)) {
+            quotient += (numerator < 0) == (denominator < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Converts an amount through a rate quoted as "1 unit of the base = rate units of the quote currency",
+     * i.e. computes {@code amount / rate} with the result at {@code resultScale}, rounded HALF_UP.
+     */
+    public static long divide(long amountUnits, int amountScale, long rateUnits, int rateScale, int resultScale) {
+        int shift = resultScale + rateScale - amountScale;
+        try {
+            if (shift >= 0 && shift <= MAX_SCALE)
+                return divideHalfUp(Math.multiplyExact(amountUnits, POWERS_OF_TEN[shift]), rateUnits);
+            if (shift < 0 && -shift <= MAX_SCALE)
+                return divideHalfUp(amountUnits, Math.multiplyExact(rateUnits, POWERS_OF_TEN[-shift]));
+        } catch (ArithmeticException overflow) {
+            // falls through to the exact but allocating path below
+        }
+        return BigDecimal.valueOf(amountUnits, amountScale)
+                .divide(BigDecimal.valueOf(rateUnits, rateScale), resultScale, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a double amount through a fixed-point rate like {@link #divide}, returning the result at
+     * {@code resultScale} as a double. Amounts too large for {@code amountScale} are divided as BigDecimal instead.
+     */
+    public static double convert(double amount, int amountScale, long rateUnits, int rateScale, int resultScale) {
+        return convert(amount, amountScale, 1, 0, rateUnits, rateScale, resultScale);
+    }
+
+    /**
+     * Computes {@code amount * quote / rate} in one HALF_UP division, e.g. a cross conversion through the EUR rates
+     * of both currencies, so that the intermediate EUR amount is never rounded.
+     */
+    public static double convert(double amount, int amountScale, long quoteUnits, int quoteScale,
+                                 long rateUnits, int rateScale, int resultScale) {
+        if (fits(amount, amountScale)) {
+            try {
+                long numerator = Math.multiplyExact(fromDouble(amount, amountScale), quoteUnits);
+                return toDouble(divide(numerator, amountScale + quoteScale, rateUnits, rateScale, resultScale),
+                        resultScale);
+            } catch (ArithmeticException overflow) {
+                // the product or the quotient does not fit a long
+            }
+        }
+        return BigDecimal.valueOf(amount)
+                .multiply(BigDecimal.valueOf(quoteUnits, quoteScale))
+                .divide(BigDecimal.valueOf(rateUnits, rateScale), resultScale, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+
+    /**
+     * Formats a value with exactly {@code scale} decimals, e.g. 16240 at scale 2 as "162.40".
+     */
+    public static String format(long units, int scale) {
+        StringBuilder text = new StringBuilder(24);
+        appendTo(text, units, scale);
+        return text.toString();
+    }
+
+    public static void appendTo(StringBuilder text, long units, int scale) {
+        if (units < 0) {
+            text.append('-');
+            if (units == Long.MIN_VALUE) {
+                text.append(BigDecimal.valueOf(units, scale).negate().toPlainString());
+                return;
+            }
+            units = -units;
+        }
+        long integerPart = units / POWERS_OF_TEN[scale];
+        text.append(integerPart);
+        if (scale > 0) {
+            text.append('.');
+            long fraction = units % POWERS_OF_TEN[scale];
+            for (int digit = scale - 1; digit >= 0; digit--)
+                text.append((char) ('0' + (fraction / POWERS_OF_TEN[digit]) % 10));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import org.springframework.http.MediaType;
+
+public enum RateExportFormat {
+    NDJSON(new MediaType("application", "x-ndjson")),
+    CSV(new MediaType("text", "csv"));
+
+    private final MediaType mediaType;
+
+    RateExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public static RateExportFormat fromName(String name) {
+        for (RateExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name))
+                return format;
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + name + ", expected ndjson or csv");
+    }
+}
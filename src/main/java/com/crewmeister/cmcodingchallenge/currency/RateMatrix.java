@@ -0,0 +1,72 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDate;
+
+/**
+ * Rates of several currencies in columns: one sorted date axis shared by all currencies and, per currency, the
+ * fixed-point rates at the scale Bundesbank publishes it with, {@link FixedPoint#MISSING} where it has no rate
+ * on a date. A data point costs one long instead of a map entry with two strings.
+ * <p>
+ * Written as {@code {"dates":[...],"rates":{"GBP":[...],...}}} by {@link RateMatrixSerializer}.
+ */
+@JsonSerialize(using = RateMatrixSerializer.class)
+public final class RateMatrix {
+
+    private final long[] epochDays;
+
+    private final String[] currencies;
+
+    private final long[][] units;
+
+    private final int[] scales;
+
+    /**
+     * @param epochDays the date axis, ascending
+     * @param currencies the currencies in the order they are presented
+     * @param units the rates of each currency, one per date
+     * @param scales the scale of each currency's rates
+     */
+    public RateMatrix(long[] epochDays, String[] currencies, long[][] units, int[] scales) {
+        for (long[] column : units) {
+            if (column.length != epochDays.length)
+                throw new IllegalArgumentException("Every currency needs one rate per date");
+        }
+        this.epochDays = epochDays;
+        this.currencies = currencies;
+        this.units = units;
+        this.scales = scales;
+    }
+
+    public int getDateCount() {
+        return epochDays.length;
+    }
+
+    public long getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    public LocalDate getDate(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    public int getCurrencyCount() {
+        return currencies.length;
+    }
+
+    public String getCurrency(int column) {
+        return currencies[column];
+    }
+
+    public int getScale(int column) {
+        return scales[column];
+    }
+
+    /**
+     * @return the unscaled rate of the currency on the date, or {@link FixedPoint#MISSING}
+     */
+    public long getUnits(int column, int index) {
+        return units[column][index];
+    }
+}
@@ -0,0 +1,71 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Streams a {@link RateMatrix} straight from its columns through one reused character buffer: every date is
+ * formatted once for all currencies, and every rate as an exact JSON number, {@code null} where it is missing.
+ */
+public class RateMatrixSerializer extends StdSerializer<RateMatrix> {
+
+    public RateMatrixSerializer() {
+        super(RateMatrix.class);
+    }
+
+    @Override
+    public void serialize(RateMatrix matrix, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int dates = matrix.getDateCount();
+        gen.writeStartObject();
+        char[] buffer = new char[24];
+        gen.writeArrayFieldStart("dates");
+        for (int index = 0; index < dates; index++) {
+            LocalDate date = matrix.getDate(index);
+            if (date.getYear() < 1000 || date.getYear() > 9999) {
+                gen.writeString(date.toString());
+                continue;
+            }
+            writeDigits(buffer, 0, date.getYear(), 4);
+            buffer[4] = '-';
+            writeDigits(buffer, 5, date.getMonthValue(), 2);
+            buffer[7] = '-';
+            writeDigits(buffer, 8, date.getDayOfMonth(), 2);
+            gen.writeString(buffer, 0, 10);
+        }
+        gen.writeEndArray();
+        gen.writeObjectFieldStart("rates");
+        StringBuilder number = new StringBuilder(24);
+        for (int column = 0; column < matrix.getCurrencyCount(); column++) {
+            int scale = matrix.getScale(column);
+            gen.writeArrayFieldStart(matrix.getCurrency(column));
+            for (int index = 0; index < dates; index++) {
+                long units = matrix.getUnits(column, index);
+                if (units == FixedPoint.MISSING) {
+                    gen.writeNull();
+                    continue;
+                }
+                number.setLength(0);
+                FixedPoint.appendTo(number, units, scale);
+                int length = number.length();
+                if (length > buffer.length)
+                    buffer = new char[length];
+                number.getChars(0, length, buffer, 0);
+                gen.writeNumber(buffer, 0, length);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
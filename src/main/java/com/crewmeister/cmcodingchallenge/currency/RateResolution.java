@@ -0,0 +1,21 @@
+package com.crewmeister.cmcodingchallenge.currency;
+
+/**
+ * How a date without a published rate (weekend, public holiday) is resolved.
+ */
+public enum RateResolution {
+    /** Only the rate published on the date itself. */
+    EXACT,
+    /** The rate of the last business day on or before the date. */
+    PREVIOUS,
+    /** The rate of the first business day on or after the date. */
+    NEXT;
+
+    public static RateResolution fromName(String name) {
+        for (RateResolution resolution : values()) {
+            if (resolution.name().equalsIgnoreCase(name))
+                return resolution;
+        }
+        throw new IllegalArgumentException("Unsupported rate resolution: " + name + ", expected exact, previous or next");
+    }
+}
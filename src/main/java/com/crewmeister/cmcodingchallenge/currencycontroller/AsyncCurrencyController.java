@@ -0,0 +1,105 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencydto.FXBatchRequestDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionResultDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXRequestDto;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking variants of the rate and conversion endpoints. A currency whose rates are not loaded yet is
+ * downloaded on the fetch executor and the request thread goes back to Tomcat until the response is ready,
+ * instead of answering that the rates are not loaded.
+ * <p>
+ * Responses are built on the application task executor that also runs Spring MVC's async work, not on the fetch
+ * thread that completed the download, so the small download pool only ever downloads.
+ */
+@RestController
+@RequestMapping("/cmfxapi/async")
+public class AsyncCurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncCurrencyController.class);
+
+    @Autowired
+    CurrencyService currencyService;
+
+    @Autowired
+    FXRateLoader rateLoader;
+
+    @Autowired
+    RateResponder rateResponder;
+
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    Executor responseExecutor;
+
+    @Value("${fx.batch.max.size}")
+    private int batchMaxSize;
+
+    @GetMapping("/getAllFXRates")
+    public CompletableFuture<ResponseEntity<?>> getAllFXRates(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date, @RequestParam(required = false) String currency,
+                                                              @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                                              @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                                              @RequestParam(defaultValue = "exact") String resolution,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.debug("Fetching the fx rates of Currencies asynchronously");
+        RateQuery query = RateQuery.of(date, currency, from, to, resolution);
+        CompletableFuture<Void> loaded = currency == null || currency.isEmpty()
+                ? CompletableFuture.completedFuture(null) : rateLoader.ensureLoaded(currency);
+        return loaded.thenApplyAsync(ignored -> rateResponder.fxRates(query, acceptEncoding), responseExecutor);
+    }
+
+    @GetMapping("/getFXAmount")
+    public CompletableFuture<ResponseEntity<Double>> getFXAmount(@Valid FXRequestDto request) {
+        logger.debug("Received async FX request: {}", request);
+        RateResolution resolution = RateResolution.fromName(request.getResolution());
+        String currency = request.getCurrency().name();
+        return rateLoader.ensureLoaded(currency).thenApplyAsync(ignored -> new ResponseEntity<Double>(
+                currencyService.getFXAmount(request.getDate().toString(), currency, request.getAmount(), resolution),
+                StaleRates.headers(currencyService.isStale(currency)), HttpStatus.OK), responseExecutor);
+    }
+
+    /**
+     * Loads every currency of the batch that is not loaded yet in parallel; a currency that cannot be loaded
+     * is reported on its own items, as in the blocking endpoint.
+     */
+    @PostMapping("/getFXAmounts")
+    public CompletableFuture<ResponseEntity<List<FXConversionResultDto>>> getFXAmounts(@RequestBody @Valid FXBatchRequestDto request) {
+        List<FXConversionDto> conversions = request.getConversions();
+        if (conversions == null || conversions.isEmpty()) {
+            throw new IllegalArgumentException("Conversion list must not be null or empty");
+        }
+        if (conversions.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Conversion list must not contain more than " + batchMaxSize + " items");
+        }
+        logger.debug("Received async batch FX request with {} items", conversions.size());
+        CompletableFuture<?>[] loads = conversions.stream()
+                .map(FXConversionDto::getCurrency)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(currency -> rateLoader.ensureLoaded(currency).exceptionally(e -> null))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(loads).thenApplyAsync(ignored ->
+                new ResponseEntity<List<FXConversionResultDto>>(currencyService.getFXAmounts(conversions), HttpStatus.OK), responseExecutor);
+    }
+}
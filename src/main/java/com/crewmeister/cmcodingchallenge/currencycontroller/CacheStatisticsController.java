@@ -0,0 +1,64 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RestController
+@RequestMapping("/cmfxapi")
+public class CacheStatisticsController {
+
+    private final CacheManager cacheManager;
+
+    private final FXRateStore rateStore;
+
+    private final FXRateLoader rateLoader;
+
+    public CacheStatisticsController(CacheManager cacheManager, FXRateStore rateStore, FXRateLoader rateLoader) {
+        this.cacheManager = cacheManager;
+        this.rateStore = rateStore;
+        this.rateLoader = rateLoader;
+    }
+
+    @GetMapping("/getCacheStatistics")
+    public ResponseEntity<Map<String, Map<String, Number>>> getCacheStatistics() {
+        Map<String, Map<String, Number>> statistics = new TreeMap<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CaffeineCache) {
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+                CacheStats stats = nativeCache.stats();
+                Map<String, Number> cacheStatistics = new LinkedHashMap<>();
+                cacheStatistics.put("size", nativeCache.estimatedSize());
+                cacheStatistics.put("hits", stats.hitCount());
+                cacheStatistics.put("misses", stats.missCount());
+                cacheStatistics.put("evictions", stats.evictionCount());
+                cacheStatistics.put("hitRate", stats.hitRate());
+                statistics.put(cacheName, cacheStatistics);
+            }
+        }
+        Map<String, Number> rateSeries = new LinkedHashMap<>();
+        rateSeries.put("size", rateStore.size());
+        rateSeries.put("hits", rateStore.getHitCount());
+        rateSeries.put("misses", rateStore.getMissCount());
+        statistics.put("rateSeries", rateSeries);
+        Map<String, Number> rateFetches = new LinkedHashMap<>();
+        rateFetches.put("started", rateLoader.getStartedCount());
+        rateFetches.put("coalesced", rateLoader.getCoalescedCount());
+        rateFetches.put("inFlight", rateLoader.getInFlightCount());
+        statistics.put("rateFetches", rateFetches);
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
+}
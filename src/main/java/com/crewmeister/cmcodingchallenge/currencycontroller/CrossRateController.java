@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import com.crewmeister.cmcodingchallenge.currencydto.CrossFXRequestDto;
+import com.crewmeister.cmcodingchallenge.currencyservice.CrossRateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cmfxapi")
+public class CrossRateController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrossRateController.class);
+
+    @Autowired
+    CrossRateService crossRateService;
+
+    @GetMapping("/getCrossFXAmount")
+    public ResponseEntity<Double> getCrossFXAmount(@Valid CrossFXRequestDto request) {
+        logger.debug("Received cross FX request from {} to {} on {}", request.getFrom(), request.getTo(), request.getDate());
+        double fxAmount = crossRateService.getCrossFXAmount(request.getDate(), request.getFrom(), request.getTo(), request.getAmount());
+        return new ResponseEntity<Double>(fxAmount, HttpStatus.OK);
+    }
+
+    @GetMapping("/getCrossFXRates")
+    public ResponseEntity<?> getCrossFXRates(@RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+                                             @RequestParam(required = false) List<String> pairs) {
+        logger.debug("Fetching the cross fx rates on {}", date);
+        if (pairs == null || pairs.isEmpty()) {
+            Map<String, Map<String, Double>> table = crossRateService.getCrossRateMatrix(date).getTable();
+            return new ResponseEntity<Map<String, Map<String, Double>>>(table, HttpStatus.OK);
+        }
+        return new ResponseEntity<Map<String, Double>>(crossRateService.getCrossFXRates(date, pairs), HttpStatus.OK);
+    }
+}
@@ -3,21 +3,44 @@ package com.crewmeister.cmcodingchallenge.currencycontroller;
 import com.crewmeister.cmcodingchallenge.currency.Currency;
 import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
 import com.crewmeister.cmcodingchallenge.currency.CurrencyWrapper;
+import com.crewmeister.cmcodingchallenge.currency.RateExportFormat;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencydto.FXBatchRequestDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionResultDto;
 import com.crewmeister.cmcodingchallenge.currencydto.FXRequestDto;
 import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.RateExport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController()
@@ -25,12 +48,24 @@ import java.util.stream.Collectors;
 public class CurrencyController {
 
     private static final Logger logger = LoggerFactory.getLogger(CurrencyController.class);
+
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     CurrencyService currencyService;
 
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    RateResponder rateResponder;
+
+    @Value("${fx.batch.max.size}")
+    private int batchMaxSize;
+
     @PostMapping("/addCurrencies")
     public List<Currency> addCurrency(@RequestBody @Valid CurrencyWrapper currency) {
-        logger.info("Adding the list of Currency");
+        logger.debug("Adding the list of Currency");
         if (currency.getCurrencies() == null || currency.getCurrencies().isEmpty()) {
             throw new IllegalArgumentException("Currency list must not be null or empty");
         }
@@ -39,7 +74,7 @@ public class CurrencyController {
 
     @GetMapping("/getAllAvailableCurrencies")
     public ResponseEntity<List<String>> getListOfAvailableCurrencies() {
-        logger.info("Fetching the list of Currencies");
+        logger.debug("Fetching the list of Currencies");
         List<Currency> currencies = currencyService.getListOfAvailableCurrencies();
         List<String> getCurrencyValues = new ArrayList<>();
         if(!currencies.isEmpty())
@@ -52,17 +87,116 @@ public class CurrencyController {
         return new ResponseEntity<List<String>>(getCurrencyValues, HttpStatus.OK);
     }
 
+    /**
+     * A single currency asked for dates whose rates can no longer change is answered from the encoded response
+     * cache, with an ETag and an immutable Cache-Control, see {@link RateResponder}.
+     */
     @GetMapping("/getAllFXRates")
-    public ResponseEntity<Map<String, Map<String,String>>> getAllFXRates(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date, @RequestParam(required = false) String currency) {
-        logger.info("Fetching the fx rates of Currencies");
-        Map<String, Map<String,String>> fxRates = currencyService.getFXRates(date != null ? date.toString() : null,currency);
-        return new ResponseEntity<Map<String, Map<String,String>>>(fxRates, HttpStatus.OK);
+    public ResponseEntity<?> getAllFXRates(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date, @RequestParam(required = false) String currency,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                           @RequestParam(defaultValue = "exact") String resolution,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.debug("Fetching the fx rates of Currencies");
+        return rateResponder.fxRates(RateQuery.of(date, currency, from, to, resolution), acceptEncoding);
+    }
+
+    /**
+     * Version 2 of getAllFXRates, with the same parameters, answering in columns: one date array shared by all
+     * currencies and an array of numeric rates per currency, null where a currency has no rate on a date.
+     */
+    @GetMapping("/v2/getAllFXRates")
+    public ResponseEntity<?> getRateMatrix(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date, @RequestParam(required = false) String currency,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                           @RequestParam(defaultValue = "exact") String resolution,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        logger.debug("Fetching the fx rate matrix of Currencies");
+        return rateResponder.rateMatrix(RateQuery.of(date, currency, from, to, resolution), acceptEncoding);
+    }
+
+    @GetMapping("/exportFXRates")
+    public ResponseEntity<StreamingResponseBody> exportFXRates(@RequestParam(defaultValue = "ndjson") String format, @RequestParam(required = false) String currency,
+                                                               @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                                               @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+        logger.debug("Exporting the fx rates of Currencies");
+        RateExportFormat exportFormat = RateExportFormat.fromName(format);
+        RateExport export = currencyService.exportFXRates(currency, from, to, exportFormat);
+        StreamingResponseBody body = export::writeTo;
+        return ResponseEntity.ok().contentType(exportFormat.getMediaType()).body(body);
     }
 
     @GetMapping("/getFXAmount")
     public ResponseEntity<Double> getFXAmount(@Valid FXRequestDto request) {
-        logger.info("Received FX request: {}", request);
-        double fxAmount = currencyService.getFXAmount(request.getDate().toString(),request.getCurrency().name(), request.getAmount());
-        return new ResponseEntity<Double>(fxAmount, HttpStatus.OK);
+        logger.debug("Received FX request: {}", request);
+        RateResolution resolution = RateResolution.fromName(request.getResolution());
+        String currency = request.getCurrency().name();
+        double fxAmount = currencyService.getFXAmount(request.getDate().toString(), currency, request.getAmount(), resolution);
+        return new ResponseEntity<Double>(fxAmount, StaleRates.headers(currencyService.isStale(currency)), HttpStatus.OK);
+    }
+
+    @PostMapping("/getFXAmounts")
+    public ResponseEntity<List<FXConversionResultDto>> getFXAmounts(@RequestBody @Valid FXBatchRequestDto request) {
+        List<FXConversionDto> conversions = request.getConversions();
+        if (conversions == null || conversions.isEmpty()) {
+            throw new IllegalArgumentException("Conversion list must not be null or empty");
+        }
+        if (conversions.size() > batchMaxSize) {
+            throw new IllegalArgumentException("Conversion list must not contain more than " + batchMaxSize + " items");
+        }
+        logger.debug("Received batch FX request with {} items", conversions.size());
+        return new ResponseEntity<List<FXConversionResultDto>>(currencyService.getFXAmounts(conversions), HttpStatus.OK);
+    }
+
+    /**
+     * Batch conversion of any size: the items are posted as NDJSON, one conversion per line, and answered with one
+     * NDJSON result line per item, in the same order. Items are read and converted one at a time and their results
+     * spooled to a temporary file, which is sent once the request is read, so memory use stays constant and clients
+     * that only read the response after sending the whole request, as most do, cannot stall the conversion. A line
+     * that is not a conversion item gets an error result of its own.
+     */
+    @PostMapping(value = "/getFXAmounts", consumes = NDJSON, produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamFXAmounts(HttpServletRequest request) throws IOException {
+        logger.debug("Received streamed batch FX request");
+        InputStream items = request.getInputStream();
+        Function<FXConversionDto, FXConversionResultDto> conversion = currencyService.newBatchConversion();
+        StreamingResponseBody body = out -> {
+            Path results = Files.createTempFile("fx-amounts-", ".ndjson");
+            try {
+                int converted = convertLines(items, results, conversion);
+                logger.debug("Converted streamed batch of {} items", converted);
+                Files.copy(results, out);
+            } finally {
+                Files.delete(results);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private int convertLines(InputStream items, Path results, Function<FXConversionDto, FXConversionResultDto> conversion) throws IOException {
+        ObjectReader itemReader = objectMapper.readerFor(FXConversionDto.class);
+        ObjectWriter resultWriter = objectMapper.writerFor(FXConversionResultDto.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(items, StandardCharsets.UTF_8));
+        int converted = 0;
+        try (Writer writer = Files.newBufferedWriter(results, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+                FXConversionResultDto result;
+                try {
+                    FXConversionDto item = itemReader.readValue(line);
+                    result = item != null ? conversion.apply(item)
+                            : FXConversionResultDto.failed(new FXConversionDto(), "Conversion item must not be null");
+                } catch (JsonProcessingException e) {
+                    result = FXConversionResultDto.failed(new FXConversionDto(), "Line " + lineNumber + " is not a conversion item");
+                }
+                writer.write(resultWriter.writeValueAsString(result));
+                writer.write('\n');
+                converted++;
+            }
+        }
+        return converted;
     }
 }
@@ -0,0 +1,55 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+
+import java.time.LocalDate;
+
+/**
+ * Parameters of a getAllFXRates query, shared by its blocking, columnar and async endpoints: either one date
+ * (all history if null) resolved as asked, or a from/to range.
+ */
+final class RateQuery {
+
+    final LocalDate date;
+
+    final String currency;
+
+    final LocalDate from;
+
+    final LocalDate to;
+
+    final RateResolution resolution;
+
+    private RateQuery(LocalDate date, String currency, LocalDate from, LocalDate to, RateResolution resolution) {
+        this.date = date;
+        this.currency = currency;
+        this.from = from;
+        this.to = to;
+        this.resolution = resolution;
+    }
+
+    /**
+     * Checks the parameters before any rates are read or loaded.
+     */
+    static RateQuery of(LocalDate date, String currency, LocalDate from, LocalDate to, String resolution) {
+        RateResolution rateResolution = RateResolution.fromName(resolution);
+        if ((from != null || to != null) && date != null)
+            throw new IllegalArgumentException("Use either 'date' or the 'from'/'to' range, not both");
+        return new RateQuery(date, currency, from, to, rateResolution);
+    }
+
+    boolean isRange() {
+        return from != null || to != null;
+    }
+
+    /**
+     * @return the last date the query asks for, null if it is open-ended
+     */
+    LocalDate until() {
+        return isRange() ? to : date;
+    }
+
+    String cacheKey() {
+        return RateResponseCache.key(currency, date, from, to, resolution);
+    }
+}
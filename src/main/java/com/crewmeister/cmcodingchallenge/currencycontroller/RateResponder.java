@@ -0,0 +1,48 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import com.crewmeister.cmcodingchallenge.currency.RateMatrix;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds the responses of the getAllFXRates endpoints. A single currency asked for dates whose rates can no longer
+ * change is answered from the encoded response cache, with an ETag and an immutable Cache-Control; other queries
+ * are answered directly, with the stale warning if the series missed its last refresh.
+ */
+@Component
+public class RateResponder {
+
+    private final CurrencyService currencyService;
+
+    private final RateResponseCache rateResponseCache;
+
+    public RateResponder(CurrencyService currencyService, RateResponseCache rateResponseCache) {
+        this.currencyService = currencyService;
+        this.rateResponseCache = rateResponseCache;
+    }
+
+    ResponseEntity<?> fxRates(RateQuery query, String acceptEncoding) {
+        Supplier<Map<String, Map<String,String>>> fxRates = () -> query.isRange()
+                ? currencyService.getFXRates(query.from, query.to, query.currency)
+                : currencyService.getFXRates(query.date != null ? query.date.toString() : null, query.currency, query.resolution);
+        return respond(query, "", fxRates, acceptEncoding);
+    }
+
+    ResponseEntity<?> rateMatrix(RateQuery query, String acceptEncoding) {
+        Supplier<RateMatrix> rateMatrix = () -> query.isRange()
+                ? currencyService.getRateMatrix(query.from, query.to, query.currency)
+                : currencyService.getRateMatrix(query.date, query.currency, query.resolution);
+        return respond(query, "v2/", rateMatrix, acceptEncoding);
+    }
+
+    private ResponseEntity<?> respond(RateQuery query, String keyPrefix, Supplier<?> body, String acceptEncoding) {
+        if (currencyService.isFinal(query.currency, query.until()))
+            return rateResponseCache.respond(keyPrefix + query.cacheKey(), body, acceptEncoding);
+        return new ResponseEntity<>(body.get(), StaleRates.headers(currencyService.isStale(query.currency)), HttpStatus.OK);
+    }
+}
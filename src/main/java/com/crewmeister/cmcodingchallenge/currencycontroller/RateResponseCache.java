@@ -0,0 +1,137 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import com.crewmeister.cmcodingchallenge.CacheConfig;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Responses of the rate queries whose answer can no longer change, cached as encoded JSON. A hit is written as is,
+ * without reading the rate tables or serializing again, and carries a strong ETag of its bytes together with an
+ * immutable Cache-Control, so clients and proxies keep it and revalidate with If-None-Match, which Spring answers
+ * with 304 Not Modified.
+ * <p>
+ * Bodies of at least {@code fx.response.cache.gzip.min.bytes} are also kept gzipped and served to clients that
+ * accept it, under their own ETag.
+ */
+@Component
+public class RateResponseCache {
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private static final String GZIP = "gzip";
+
+    private final Cache cache;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${fx.response.cache.gzip.min.bytes:1024}")
+    private int gzipMinBytes;
+
+    public RateResponseCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cache = cacheManager.getCache(CacheConfig.RATE_RESPONSES);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Key of a getAllFXRates query; the resolution only matters to single dates but is harmless on ranges.
+     */
+    public static String key(String currency, LocalDate date, LocalDate from, LocalDate to, RateResolution resolution) {
+        return String.join("/", currency, String.valueOf(date), String.valueOf(from), String.valueOf(to), resolution.name());
+    }
+
+    /**
+     * Answers with the cached response of the key, or with the body from the supplier, encoded and cached. The
+     * supplier is called outside the cache, so its exceptions reach the exception handlers unwrapped.
+     */
+    public ResponseEntity<byte[]> respond(String key, Supplier<?> body, String acceptEncoding) {
+        Entry entry = cache.get(key, Entry.class);
+        if (entry == null) {
+            entry = encode(body.get());
+            cache.put(key, entry);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        if (entry.gzipped == null)
+            return response.eTag(entry.etag).body(entry.json);
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(acceptEncoding))
+            return response.eTag(entry.etag).body(entry.json);
+        return response.eTag(entry.gzippedEtag)
+                .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .body(entry.gzipped);
+    }
+
+    private Entry encode(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            String hash = DigestUtils.md5DigestAsHex(json);
+            byte[] gzipped = json.length >= gzipMinBytes ? gzip(json) : null;
+            return new Entry(json, "\"" + hash + "\"", gzipped, "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize the rate response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase(GZIP))
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    /**
+     * One encoded response; the cache is bounded by the bytes it holds.
+     */
+    public static final class Entry {
+
+        private final byte[] json;
+
+        private final String etag;
+
+        private final byte[] gzipped;
+
+        private final String gzippedEtag;
+
+        private Entry(byte[] json, String etag, byte[] gzipped, String gzippedEtag) {
+            this.json = json;
+            this.etag = etag;
+            this.gzipped = gzipped;
+            this.gzippedEtag = gzippedEtag;
+        }
+
+        public int size() {
+            return json.length + (gzipped != null ? gzipped.length : 0);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes one summary line per API request to the {@code fx.requests} logger, with the method, path, status and
+ * duration as key=value pairs. Asynchronous requests are summarized once their response completes.
+ * <p>
+ * Successful requests to the high-volume endpoints are sampled, only one in {@code fx.request.log.sample.every}
+ * is written and carries that number as its weight. Failed requests and requests slower than
+ * {@code fx.request.log.slow.ms} are always written.
+ */
+@Component
+public class RequestSummaryFilter extends OncePerRequestFilter {
+
+    private static final Logger summaryLogger = LoggerFactory.getLogger("fx.requests");
+
+    @Value("${fx.request.log.sampled.paths:}")
+    private List<String> sampledPaths;
+
+    @Value("${fx.request.log.sample.every:1}")
+    private int sampleEvery;
+
+    @Value("${fx.request.log.slow.ms:1000}")
+    private long slowMillis;
+
+    private final AtomicLong sampledRequests = new AtomicLong();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/cmfxapi/");
+    }
+
+    /**
+     * Skips every async dispatch, not only those with a Spring MVC concurrent result: the request is summarized
+     * by the listener registered when it started async, and filtering the dispatch would register another one.
+     */
+    @Override
+    protected boolean isAsyncDispatch(HttpServletRequest request) {
+        return request.getDispatcherType() == DispatcherType.ASYNC;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted())
+                request.getAsyncContext().addListener(new SummaryOnComplete(request, response, startNanos));
+            else
+                summarize(request, failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus(), startNanos);
+        }
+    }
+
+    private void summarize(HttpServletRequest request, int status, long startNanos) {
+        if (!summaryLogger.isInfoEnabled())
+            return;
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        String path = request.getRequestURI();
+        int weight = 1;
+        if (status < 400 && durationMs < slowMillis && sampleEvery > 1 && sampledPaths.contains(path)) {
+            if (sampledRequests.getAndIncrement() % sampleEvery != 0)
+                return;
+            weight = sampleEvery;
+        }
+        String query = request.getQueryString();
+        summaryLogger.info("method={} path={} query={} status={} durationMs={} sampled={}",
+                request.getMethod(), path, query != null ? query : "", status, durationMs, weight);
+    }
+
+    /**
+     * Keeps the request and response it summarizes; the event only supplies them if they were passed to
+     * {@code startAsync}.
+     */
+    private final class SummaryOnComplete implements AsyncListener {
+
+        private final HttpServletRequest request;
+
+        private final HttpServletResponse response;
+
+        private final long startNanos;
+
+        private SummaryOnComplete(HttpServletRequest request, HttpServletResponse response, long startNanos) {
+            this.request = request;
+            this.response = response;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            summarize(request, response.getStatus(), startNanos);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // the request completes with an error status afterwards and is summarized then
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // the request completes with an error status afterwards and is summarized then
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the listener stays registered for the one async cycle of the request
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.crewmeister.cmcodingchallenge.currencycontroller;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Response headers of the rate endpoints. Rates served from a series whose last refresh failed carry the
+ * HTTP 110 stale warning, so clients can tell the latest publication may be missing.
+ */
+final class StaleRates {
+
+    static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private StaleRates() {
+    }
+
+    static HttpHeaders headers(boolean stale) {
+        HttpHeaders headers = new HttpHeaders();
+        if (stale)
+            headers.set(HttpHeaders.WARNING, STALE_WARNING);
+        return headers;
+    }
+}
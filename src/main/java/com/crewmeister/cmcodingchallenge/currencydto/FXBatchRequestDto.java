@@ -0,0 +1,17 @@
+package com.crewmeister.cmcodingchallenge.currencydto;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+public class FXBatchRequestDto {
+
+    private List<@NotNull(message = "Conversion item must not be null") FXConversionDto> conversions;
+
+    public List<FXConversionDto> getConversions() {
+        return conversions;
+    }
+
+    public void setConversions(List<FXConversionDto> conversions) {
+        this.conversions = conversions;
+    }
+}
@@ -0,0 +1,47 @@
+package com.crewmeister.cmcodingchallenge.currencydto;
+
+/**
+ * One item of a batch conversion. Fields are kept as plain values so that an invalid item
+ * is reported in its own result instead of rejecting the whole batch.
+ */
+public class FXConversionDto {
+
+    private String date;
+
+    private String currency;
+
+    private Double amount;
+
+    public FXConversionDto() {
+    }
+
+    public FXConversionDto(String date, String currency, Double amount) {
+        this.date = date;
+        this.currency = currency;
+        this.amount = amount;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Double amount) {
+        this.amount = amount;
+    }
+}
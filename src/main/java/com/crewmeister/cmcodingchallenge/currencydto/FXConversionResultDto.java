@@ -0,0 +1,56 @@
+package com.crewmeister.cmcodingchallenge.currencydto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of one batch conversion item; either the converted amount or the error is set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FXConversionResultDto {
+
+    private final String date;
+
+    private final String currency;
+
+    private final Double amount;
+
+    private final Double convertedAmount;
+
+    private final String error;
+
+    private FXConversionResultDto(FXConversionDto conversion, Double convertedAmount, String error) {
+        this.date = conversion.getDate();
+        this.currency = conversion.getCurrency();
+        this.amount = conversion.getAmount();
+        this.convertedAmount = convertedAmount;
+        this.error = error;
+    }
+
+    public static FXConversionResultDto converted(FXConversionDto conversion, double convertedAmount) {
+        return new FXConversionResultDto(conversion, convertedAmount, null);
+    }
+
+    public static FXConversionResultDto failed(FXConversionDto conversion, String error) {
+        return new FXConversionResultDto(conversion, null, error);
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+
+    public Double getConvertedAmount() {
+        return convertedAmount;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -20,6 +20,8 @@ public class FXRequestDto {
     @Positive(message = "Amount must be a positive number")
     private Double amount;
 
+    private String resolution = "exact";
+
     public LocalDate getDate() {
         return date;
     }
@@ -43,4 +45,12 @@ public class FXRequestDto {
     public void setAmount(double amount) {
         this.amount = amount;
     }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(String resolution) {
+        this.resolution = resolution;
+    }
 }
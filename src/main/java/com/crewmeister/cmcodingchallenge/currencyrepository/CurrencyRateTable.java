@@ -0,0 +1,276 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.xmldata.RateSink;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable daily rate series of one currency, stored as fixed-point values indexed by the day offset
+ * from the first observation. Every rate is held as a long at the scale Bundesbank publishes the currency
+ * with, so lookups, conversions and formatting are exact. Days without a published rate (weekends,
+ * public holidays) read as {@link FixedPoint#MISSING}. The values live either in a heap array or in a
+ * memory-mapped {@link RateSeriesFile}.
+ * <p>
+ * The offsets of the nearest published day before and after every day are computed once, on the first
+ * lookup falling back to the previous or next business day, so such lookups are O(1) as well.
+ */
+public final class CurrencyRateTable {
+
+    private final long firstEpochDay;
+
+    private final RateValues units;
+
+    private final int length;
+
+    private final int scale;
+
+    private volatile CarryForwardIndex carryForwardIndex;
+
+    private CurrencyRateTable(long firstEpochDay, RateValues units, int scale) {
+        this.firstEpochDay = firstEpochDay;
+        this.units = units;
+        this.length = units.length();
+        this.scale = scale;
+    }
+
+    static CurrencyRateTable of(long firstEpochDay, RateValues units, int scale) {
+        return new CurrencyRateTable(firstEpochDay, units, scale);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(firstEpochDay + length - 1);
+    }
+
+    public boolean covers(LocalDate date) {
+        long offset = date.toEpochDay() - firstEpochDay;
+        return offset >= 0 && offset < length;
+    }
+
+    /**
+     * @return the number of decimals every rate of this table is held with
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @return the rate published for the date as a double, or NaN if there is none
+     */
+    public double getRate(LocalDate date) {
+        return FixedPoint.toDouble(getUnits(date), scale);
+    }
+
+    /**
+     * @return the unscaled rate published for the date, or {@link FixedPoint#MISSING} if there is none
+     */
+    public long getUnits(LocalDate date) {
+        long offset = date.toEpochDay() - firstEpochDay;
+        if (offset < 0 || offset >= length)
+            return FixedPoint.MISSING;
+        return units.get((int) offset);
+    }
+
+    /**
+     * Resolves the date to the offset of a published rate. Outside the series, {@link RateResolution#PREVIOUS}
+     * carries the last published rate forward and {@link RateResolution#NEXT} the first one backward.
+     *
+     * @return the offset of the published rate to use, or -1 if there is none
+     */
+    public int resolveOffset(LocalDate date, RateResolution resolution) {
+        if (length == 0)
+            return -1;
+        long offset = date.toEpochDay() - firstEpochDay;
+        switch (resolution) {
+            case PREVIOUS:
+                return offset < 0 ? -1 : carryForwardIndex().previous[(int) Math.min(offset, length - 1)];
+            case NEXT:
+                return offset >= length ? -1 : carryForwardIndex().next[(int) Math.max(offset, 0)];
+            default:
+                return offset >= 0 && offset < length && units.get((int) offset) != FixedPoint.MISSING ? (int) offset : -1;
+        }
+    }
+
+    private CarryForwardIndex carryForwardIndex() {
+        CarryForwardIndex index = carryForwardIndex;
+        if (index == null) {
+            index = new CarryForwardIndex(units);
+            carryForwardIndex = index;
+        }
+        return index;
+    }
+
+    public LocalDate getDateAt(int offset) {
+        return LocalDate.ofEpochDay(firstEpochDay + offset);
+    }
+
+    /**
+     * @return the first offset on or after {@code from}, or 0 if {@code from} is null
+     */
+    public int startOffset(LocalDate from) {
+        if (from == null)
+            return 0;
+        long offset = from.toEpochDay() - firstEpochDay;
+        return (int) Math.max(0, Math.min(offset, length));
+    }
+
+    /**
+     * @return the offset after the last day on or before {@code to}, or the table length if {@code to} is null
+     */
+    public int endOffset(LocalDate to) {
+        if (to == null)
+            return length;
+        long offset = to.toEpochDay() - firstEpochDay + 1;
+        return (int) Math.max(0, Math.min(offset, length));
+    }
+
+    /**
+     * @return true if the rates are read from a memory-mapped {@link RateSeriesFile}
+     */
+    public boolean isMapped() {
+        return units.isMapped();
+    }
+
+    public long getFirstEpochDay() {
+        return firstEpochDay;
+    }
+
+    public long getUnitsAt(int offset) {
+        return units.get(offset);
+    }
+
+    /**
+     * Returns a table covering both series, where the published rates of {@code newer} win over this table's.
+     * Used to append the observations of an incremental download to the series already held.
+     */
+    public CurrencyRateTable mergedWith(CurrencyRateTable newer) {
+        if (newer.isEmpty())
+            return this;
+        if (isEmpty())
+            return newer;
+        int mergedScale = Math.max(scale, newer.scale);
+        long first = Math.min(firstEpochDay, newer.firstEpochDay);
+        long last = Math.max(firstEpochDay + length, newer.firstEpochDay + newer.length) - 1;
+        long[] merged = new long[Math.toIntExact(last - first + 1)];
+        Arrays.fill(merged, FixedPoint.MISSING);
+        int offset = (int) (firstEpochDay - first);
+        for (int i = 0; i < length; i++)
+            merged[offset + i] = FixedPoint.rescale(units.get(i), scale, mergedScale);
+        int newerOffset = (int) (newer.firstEpochDay - first);
+        for (int i = 0; i < newer.length; i++) {
+            long newerUnits = newer.units.get(i);
+            if (newerUnits != FixedPoint.MISSING)
+                merged[newerOffset + i] = FixedPoint.rescale(newerUnits, newer.scale, mergedScale);
+        }
+        return new CurrencyRateTable(first, RateValues.of(merged), mergedScale);
+    }
+
+    /**
+     * Formats an unscaled rate of this table with the number of decimals Bundesbank publishes for this currency.
+     */
+    public String formatRate(long rateUnits) {
+        return FixedPoint.format(rateUnits, scale);
+    }
+
+    public static final class Builder implements RateSink {
+
+        private long[] epochDays = new long[256];
+
+        private long[] values = new long[256];
+
+        private int[] scales = new int[256];
+
+        private int size;
+
+        private int scale;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds one observation; a null or empty rate marks a day without a published value.
+         */
+        public Builder add(String date, String rate) {
+            long epochDay = LocalDate.parse(date).toEpochDay();
+            if (rate == null || rate.isEmpty())
+                accept(epochDay, FixedPoint.MISSING, 0);
+            else
+                accept(epochDay, FixedPoint.parseUnscaled(rate), FixedPoint.scaleOf(rate));
+            return this;
+        }
+
+        @Override
+        public void accept(long epochDay, long rateUnits, int scale) {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                scales = Arrays.copyOf(scales, size * 2);
+            }
+            epochDays[size] = epochDay;
+            values[size] = rateUnits;
+            scales[size] = scale;
+            if (rateUnits != FixedPoint.MISSING)
+                this.scale = Math.max(this.scale, scale);
+            size++;
+        }
+
+        public CurrencyRateTable build() {
+            if (size == 0)
+                return new CurrencyRateTable(0, RateValues.of(new long[0]), scale);
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                first = Math.min(first, epochDays[i]);
+                last = Math.max(last, epochDays[i]);
+            }
+            long[] units = new long[Math.toIntExact(last - first + 1)];
+            Arrays.fill(units, FixedPoint.MISSING);
+            for (int i = 0; i < size; i++)
+                units[(int) (epochDays[i] - first)] = FixedPoint.rescale(values[i], scales[i], scale);
+            return new CurrencyRateTable(first, RateValues.of(units), scale);
+        }
+    }
+
+    private static final class CarryForwardIndex {
+
+        private final int[] previous;
+
+        private final int[] next;
+
+        private CarryForwardIndex(RateValues units) {
+            int length = units.length();
+            previous = new int[length];
+            next = new int[length];
+            int published = -1;
+            for (int i = 0; i < length; i++) {
+                if (units.get(i) != FixedPoint.MISSING)
+                    published = i;
+                previous[i] = published;
+            }
+            published = -1;
+            for (int i = length - 1; i >= 0; i--) {
+                if (units.get(i) != FixedPoint.MISSING)
+                    published = i;
+                next[i] = published;
+            }
+        }
+    }
+}
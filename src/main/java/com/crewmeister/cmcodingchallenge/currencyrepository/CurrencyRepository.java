@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -13,4 +15,6 @@ public interface CurrencyRepository extends JpaRepository<Currency,Long> {
 
     @Query("SELECT c FROM Currency c WHERE c.currencyName = :currency")
     Optional<Currency> findCurrencyName(@Param("currency") String currency);
+
+    List<Currency> findByCurrencyNameIn(Collection<String> currencyNames);
 }
@@ -0,0 +1,66 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk JDBC access to the {@code fx_observation} table for whole rate series, bypassing the persistence
+ * context: series are written with batched upserts and read straight into a {@link CurrencyRateTable}.
+ */
+@Repository
+public class FXObservationDao {
+
+    private static final String UPSERT = "MERGE INTO fx_observation (currency, obs_date, rate_units, rate_scale) "
+            + "KEY (currency, obs_date) VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_SERIES = "SELECT obs_date, rate_units, rate_scale FROM fx_observation "
+            + "WHERE currency = ? ORDER BY obs_date";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public FXObservationDao(JdbcTemplate jdbcTemplate, @Value("${fx.db.batch.size}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts or replaces every published rate of the table; days without a rate are not stored.
+     *
+     * @return the number of observations written
+     */
+    public int upsert(String currency, CurrencyRateTable table) {
+        List<Integer> published = new ArrayList<>(table.length());
+        for (int offset = 0; offset < table.length(); offset++) {
+            if (table.getUnitsAt(offset) != FixedPoint.MISSING)
+                published.add(offset);
+        }
+        jdbcTemplate.batchUpdate(UPSERT, published, batchSize, (ps, offset) -> {
+            ps.setString(1, currency);
+            ps.setDate(2, Date.valueOf(table.getDateAt(offset)));
+            ps.setLong(3, table.getUnitsAt(offset));
+            ps.setInt(4, table.getScale());
+        });
+        return published.size();
+    }
+
+    /**
+     * @return the stored series of the currency, empty if none is stored
+     */
+    public CurrencyRateTable load(String currency) {
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        jdbcTemplate.query(SELECT_SERIES, rs -> {
+            LocalDate date = rs.getDate(1).toLocalDate();
+            builder.accept(date.toEpochDay(), rs.getLong(2), rs.getInt(3));
+        }, currency);
+        return builder.build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.FXObservation;
+import com.crewmeister.cmcodingchallenge.currency.FXObservationId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface FXObservationRepository extends JpaRepository<FXObservation, FXObservationId> {
+
+    /**
+     * @return the date of the latest observation stored for the currency, empty if none is stored
+     */
+    @Query("SELECT MAX(o.date) FROM FXObservation o WHERE o.currency = :currency")
+    Optional<LocalDate> findLastDate(@Param("currency") String currency);
+}
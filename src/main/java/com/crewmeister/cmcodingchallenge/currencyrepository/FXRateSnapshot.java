@@ -0,0 +1,103 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Persists the rate store to a local directory, one {@link RateSeriesFile} per currency, so that a restart
+ * or a store miss can map the series from disk instead of downloading and parsing it again. Disabled unless
+ * {@code fx.snapshot.dir} is set.
+ * <p>
+ * Saved tables are swapped for tables mapped from their file, so once a series is persisted its history
+ * no longer occupies the heap.
+ */
+@Component
+public class FXRateSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(FXRateSnapshot.class);
+
+    private static final String FILE_EXTENSION = ".fxr";
+
+    private final Path directory;
+
+    public FXRateSnapshot(@Value("${fx.snapshot.dir:}") String directory) {
+        this.directory = directory == null || directory.isEmpty() ? null : Paths.get(directory);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Maps the stored series of every currency into the store.
+     *
+     * @return the number of series loaded
+     */
+    public int load(FXRateStore rateStore) {
+        if (directory == null)
+            return 0;
+        int loaded = 0;
+        for (CurrencyConstants ccy : CurrencyConstants.values()) {
+            if (load(rateStore, ccy))
+                loaded++;
+        }
+        logger.info("Mapped {} rate series from {}", loaded, directory);
+        return loaded;
+    }
+
+    /**
+     * Maps the stored series of one currency into the store, e.g. on a store miss.
+     *
+     * @return true if a usable series file was found
+     */
+    public boolean load(FXRateStore rateStore, CurrencyConstants ccy) {
+        if (directory == null)
+            return false;
+        Path file = fileOf(ccy);
+        if (!Files.isReadable(file))
+            return false;
+        try {
+            rateStore.putTable(ccy, RateSeriesFile.map(file));
+            return true;
+        } catch (IOException e) {
+            logger.warn("Ignoring rate series file {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes every series not persisted yet and replaces it in the store by its mapped file.
+     */
+    public void save(FXRateStore rateStore) {
+        if (directory == null)
+            return;
+        int saved = 0;
+        for (Map.Entry<CurrencyConstants, CurrencyRateTable> entry : rateStore.getTables().entrySet()) {
+            CurrencyRateTable table = entry.getValue();
+            if (table.isMapped())
+                continue;
+            Path file = fileOf(entry.getKey());
+            try {
+                RateSeriesFile.write(table, file);
+                rateStore.replaceTable(entry.getKey(), table, RateSeriesFile.map(file));
+                saved++;
+            } catch (IOException e) {
+                logger.warn("Unable to write rate series file {}: {}", file, e.getMessage());
+            }
+        }
+        logger.info("Saved {} rate series to {}", saved, directory);
+    }
+
+    private Path fileOf(CurrencyConstants ccy) {
+        return directory.resolve(ccy.name() + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,126 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local store of EUR-FX rate series, one {@link CurrencyRateTable} per currency.
+ * It is filled by the scheduled refresh job so that requests never wait on Bundesbank.
+ * Tables are replaced atomically, so readers always see a complete series. A currency whose last refresh
+ * failed keeps serving its last good table, marked as stale until a refresh succeeds again.
+ * Every stored table bumps the {@link #getVersion() version}, so values derived from the tables can be keyed on it.
+ */
+@Component
+public class FXRateStore {
+
+    private final AtomicReferenceArray<CurrencyRateTable> tables =
+            new AtomicReferenceArray<>(CurrencyConstants.values().length);
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final Set<CurrencyConstants> stale = ConcurrentHashMap.newKeySet();
+
+    public void putTable(CurrencyConstants currency, CurrencyRateTable table) {
+        tables.set(currency.ordinal(), table);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Replaces the table only if it is still {@code expected}, so a newer table stored meanwhile is kept.
+     */
+    public boolean replaceTable(CurrencyConstants currency, CurrencyRateTable expected, CurrencyRateTable replacement) {
+        if (!tables.compareAndSet(currency.ordinal(), expected, replacement))
+            return false;
+        version.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return a number that changes whenever a table is stored, by a refresh or from a local series file
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Optional<CurrencyRateTable> getTable(CurrencyConstants currency) {
+        CurrencyRateTable table = tables.get(currency.ordinal());
+        (table != null ? hits : misses).increment();
+        return Optional.ofNullable(table);
+    }
+
+    public boolean hasTable(CurrencyConstants currency) {
+        return tables.get(currency.ordinal()) != null;
+    }
+
+    /**
+     * @return the rate of the currency on the date, or NaN if none is stored
+     */
+    public double getRate(CurrencyConstants currency, LocalDate date) {
+        CurrencyRateTable table = tables.get(currency.ordinal());
+        (table != null ? hits : misses).increment();
+        return table != null ? table.getRate(date) : Double.NaN;
+    }
+
+    /**
+     * @return the tables stored right now, by currency; reading them is not counted as hits
+     */
+    public Map<CurrencyConstants, CurrencyRateTable> getTables() {
+        Map<CurrencyConstants, CurrencyRateTable> stored = new EnumMap<>(CurrencyConstants.class);
+        for (CurrencyConstants ccy : CurrencyConstants.values()) {
+            CurrencyRateTable table = tables.get(ccy.ordinal());
+            if (table != null)
+                stored.put(ccy, table);
+        }
+        return stored;
+    }
+
+    public void markStale(CurrencyConstants currency) {
+        stale.add(currency);
+    }
+
+    public void markFresh(CurrencyConstants currency) {
+        stale.remove(currency);
+    }
+
+    /**
+     * @return true if the last refresh of the currency failed and its table may miss the latest rates
+     */
+    public boolean isStale(CurrencyConstants currency) {
+        return stale.contains(currency);
+    }
+
+    public boolean hasStaleTables() {
+        return !stale.isEmpty();
+    }
+
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < tables.length(); i++) {
+            if (tables.get(i) != null)
+                size++;
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
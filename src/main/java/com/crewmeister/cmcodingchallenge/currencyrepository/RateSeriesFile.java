@@ -0,0 +1,149 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file holding the rate series of one currency, laid out so that it can be read in place through
+ * {@link FileChannel#map}: the table returned by {@link #map(Path)} reads its rates straight from the page
+ * cache, so a series takes almost no heap however much history it covers.
+ * <pre>
+ *  offset  size  content
+ *       0     4  magic "FXRT"
+ *       4     2  format version
+ *       6     1  scale of the rates
+ *       7     1  width of one value in bytes, 4 or 8
+ *       8     8  epoch day of the first entry
+ *      16     4  number of days
+ *      20     4  reserved
+ *      24     8n missing-day bitmap, one bit per day, n = ceil(days / 64)
+ *  24+8n  w*days unscaled rates, 0 on missing days
+ * </pre>
+ * Values are packed into 4 bytes whenever every rate of the series fits an int. All numbers are big-endian.
+ */
+public final class RateSeriesFile {
+
+    static final int MAGIC = 0x46585254;
+
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 24;
+
+    private RateSeriesFile() {
+    }
+
+    /**
+     * Writes the table to a temporary file next to {@code path} and moves it into place, so readers never
+     * see a partly written file and a table mapped from the previous file stays valid.
+     */
+    public static void write(CurrencyRateTable table, Path path) throws IOException {
+        int length = table.length();
+        int width = 4;
+        for (int offset = 0; offset < length; offset++) {
+            long units = table.getUnitsAt(offset);
+            if (units != FixedPoint.MISSING && (units < Integer.MIN_VALUE || units > Integer.MAX_VALUE)) {
+                width = 8;
+                break;
+            }
+        }
+        int bitmapWords = (length + 63) >>> 6;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bitmapWords * 8 + length * width);
+        buffer.putInt(MAGIC).putShort(VERSION).put((byte) table.getScale()).put((byte) width)
+                .putLong(table.getFirstEpochDay()).putInt(length).putInt(0);
+        for (int word = 0; word < bitmapWords; word++) {
+            long bits = 0;
+            for (int bit = 0; bit < 64 && (word << 6) + bit < length; bit++) {
+                if (table.getUnitsAt((word << 6) + bit) == FixedPoint.MISSING)
+                    bits |= 1L << bit;
+            }
+            buffer.putLong(bits);
+        }
+        for (int offset = 0; offset < length; offset++) {
+            long units = table.getUnitsAt(offset);
+            if (units == FixedPoint.MISSING)
+                units = 0;
+            if (width == 4)
+                buffer.putInt((int) units);
+            else
+                buffer.putLong(units);
+        }
+        buffer.flip();
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the file read-only and returns a table reading its rates from the mapping, without copying them.
+     *
+     * @throws IOException if the file cannot be read or is not a rate series file of this version
+     */
+    public static CurrencyRateTable map(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION)
+            throw new IOException("Not a rate series file: " + path);
+        int scale = buffer.get(6);
+        int width = buffer.get(7);
+        long firstEpochDay = buffer.getLong(8);
+        int length = buffer.getInt(16);
+        int bitmapWords = (length + 63) >>> 6;
+        if ((width != 4 && width != 8) || scale < 0 || scale > FixedPoint.MAX_SCALE || length < 0
+                || buffer.capacity() < HEADER_SIZE + (long) bitmapWords * 8 + (long) length * width)
+            throw new IOException("Corrupt rate series file: " + path);
+        return CurrencyRateTable.of(firstEpochDay, new MappedRateValues(buffer, length, width, HEADER_SIZE + bitmapWords * 8), scale);
+    }
+
+    private static final class MappedRateValues implements RateValues {
+
+        private final ByteBuffer buffer;
+
+        private final int length;
+
+        private final int width;
+
+        private final int valuesStart;
+
+        private MappedRateValues(ByteBuffer buffer, int length, int width, int valuesStart) {
+            this.buffer = buffer;
+            this.length = length;
+            this.width = width;
+            this.valuesStart = valuesStart;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public long get(int offset) {
+            if (offset < 0 || offset >= length)
+                throw new IndexOutOfBoundsException("Day offset " + offset + " outside series of " + length + " days");
+            long bitmapWord = buffer.getLong(HEADER_SIZE + (offset >>> 6) * 8);
+            if ((bitmapWord & (1L << offset)) != 0)
+                return FixedPoint.MISSING;
+            return width == 4 ? buffer.getInt(valuesStart + offset * 4) : buffer.getLong(valuesStart + offset * 8);
+        }
+
+        @Override
+        public boolean isMapped() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.crewmeister.cmcodingchallenge.currencyrepository;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+
+/**
+ * Storage of the unscaled daily rates behind a {@link CurrencyRateTable}: either a heap array or
+ * a memory-mapped {@link RateSeriesFile}.
+ */
+interface RateValues {
+
+    int length();
+
+    /**
+     * @return the unscaled rate at the day offset, or {@link FixedPoint#MISSING} if none was published
+     */
+    long get(int offset);
+
+    /**
+     * @return true if the values are read from a mapped file rather than held on the heap
+     */
+    default boolean isMapped() {
+        return false;
+    }
+
+    static RateValues of(long[] units) {
+        return new RateValues() {
+            @Override
+            public int length() {
+                return units.length;
+            }
+
+            @Override
+            public long get(int offset) {
+                return units[offset];
+            }
+        };
+    }
+}
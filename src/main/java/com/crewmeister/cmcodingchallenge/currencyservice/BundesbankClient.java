@@ -0,0 +1,236 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.xmldata.SdmxRateReader;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryState;
+import org.springframework.retry.policy.CircuitBreakerRetryPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.DefaultRetryState;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads rate series from the Bundesbank SDMX API, guarded in three layers:
+ * <ul>
+ *     <li>a circuit breaker, which fails every download fast for {@code bundesbank.circuit.reset.timeout.ms}
+ *     once {@code bundesbank.circuit.failures} downloads failed within {@code bundesbank.circuit.open.timeout.ms};
+ *     only I/O errors and 5xx responses count, not client errors, malformed payloads or bulkhead rejections;</li>
+ *     <li>a bulkhead, which limits the requests in flight to {@code bundesbank.bulkhead.permits} and rejects a
+ *     download that cannot get a permit within {@code bundesbank.bulkhead.wait.ms}; every attempt takes its own
+ *     permit, so none is held while backing off;</li>
+ *     <li>retries of I/O errors and 5xx responses, with exponential backoff and random jitter so clients
+ *     failing together do not retry in lockstep.</li>
+ * </ul>
+ * Every failure surfaces as a {@link RestClientException}, including the fast failure of the open circuit.
+ */
+@Component
+public class BundesbankClient {
+
+    @Value("${bundesbank.api.base.url}")
+    private String bundesBaseUrl;
+
+    @Value("${bundesbank.api.key}")
+    private String bundesApiKey;
+
+    @Value("${bundesbank.api.format}")
+    private String bundesApiFormat;
+
+    @Value("${bundesbank.api.lang}")
+    private String bundesApiLang;
+
+    private final RestTemplate restTemplate;
+
+    private final FXRateMetrics rateMetrics;
+
+    /**
+     * All downloads share one circuit, kept by the stateful {@link #circuitBreaker} template under this key.
+     */
+    private static final RetryState CIRCUIT = new DefaultRetryState("bundesbank");
+
+    private final RetryTemplate retryTemplate;
+
+    private final RetryTemplate circuitBreaker;
+
+    private final Semaphore bulkhead;
+
+    private final long bulkheadWaitMs;
+
+    private final SdmxRateReader sdmxRateReader = new SdmxRateReader();
+
+    public BundesbankClient(RestTemplate restTemplate, FXRateMetrics rateMetrics,
+                            @Value("${bundesbank.retry.max.attempts}") int retryMaxAttempts,
+                            @Value("${bundesbank.retry.delay.ms}") long retryDelayMs,
+                            @Value("${bundesbank.retry.max.delay.ms}") long retryMaxDelayMs,
+                            @Value("${bundesbank.bulkhead.permits}") int bulkheadPermits,
+                            @Value("${bundesbank.bulkhead.wait.ms}") long bulkheadWaitMs,
+                            @Value("${bundesbank.circuit.failures}") int circuitFailures,
+                            @Value("${bundesbank.circuit.open.timeout.ms}") long circuitOpenTimeoutMs,
+                            @Value("${bundesbank.circuit.reset.timeout.ms}") long circuitResetTimeoutMs) {
+        this.restTemplate = restTemplate;
+        this.rateMetrics = rateMetrics;
+        this.retryTemplate = RetryTemplate.builder()
+                .maxAttempts(retryMaxAttempts)
+                .exponentialBackoff(retryDelayMs, 2, retryMaxDelayMs, true)
+                .retryOn(ResourceAccessException.class)
+                .retryOn(HttpServerErrorException.class)
+                .build();
+        CircuitBreakerRetryPolicy breakerPolicy = new CircuitBreakerRetryPolicy(new CountedFailures(circuitFailures));
+        breakerPolicy.setOpenTimeout(circuitOpenTimeoutMs);
+        breakerPolicy.setResetTimeout(circuitResetTimeoutMs);
+        this.circuitBreaker = new RetryTemplate();
+        this.circuitBreaker.setRetryPolicy(breakerPolicy);
+        this.bulkhead = new Semaphore(bulkheadPermits);
+        this.bulkheadWaitMs = bulkheadWaitMs;
+    }
+
+    /**
+     * Downloads the series of the currency, from {@code startPeriod} on or in full if it is null.
+     */
+    public CurrencyRateTable fetchRates(String currency, LocalDate startPeriod) {
+        URI url = buildUrl(currency, startPeriod);
+        return circuitBreaker.execute(circuit -> retryTemplate.execute(context -> {
+            if (context.getRetryCount() > 0)
+                rateMetrics.recordRetry(currency);
+            acquirePermit(currency);
+            try {
+                return download(url, currency);
+            } finally {
+                bulkhead.release();
+            }
+        }), circuit -> {
+            throw new RestClientException("Bundesbank circuit is open, not downloading currency " + currency);
+        }, CIRCUIT);
+    }
+
+    private URI buildUrl(String currencyName, LocalDate startPeriod) {
+        String apiKey = String.format(bundesApiKey, currencyName);
+        UriComponentsBuilder builder = UriComponentsBuilder
+                .fromHttpUrl(bundesBaseUrl.endsWith("/") ? bundesBaseUrl : bundesBaseUrl + "/")
+                .pathSegment(apiKey)
+                .queryParam("format", bundesApiFormat)
+                .queryParam("lang", bundesApiLang);
+        if (startPeriod != null)
+            builder.queryParam("startPeriod", startPeriod.toString());
+        return builder
+                .build()
+                .toUri();
+    }
+
+    /**
+     * Rejections are plain {@link RestClientException}s, neither retried nor counted by the circuit breaker:
+     * they report local load, not a Bundesbank failure.
+     */
+    private void acquirePermit(String currency) {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS))
+                throw new RestClientException("Too many concurrent Bundesbank downloads, rejected currency " + currency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RestClientException("Interrupted while waiting to download currency " + currency);
+        }
+    }
+
+    private CurrencyRateTable download(URI url, String currency) {
+        Timer.Sample fetch = rateMetrics.start();
+        try {
+            CurrencyRateTable table = restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                Timer.Sample parse = rateMetrics.start();
+                CountingInputStream body = new CountingInputStream(response.getBody());
+                CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+                int observations;
+                try {
+                    observations = sdmxRateReader.read(body, builder);
+                } catch (IOException | RuntimeException e) {
+                    // a malformed payload is not retried, unlike the I/O errors RestTemplate wraps
+                    throw new RestClientException("Malformed SDMX response for currency " + currency, e);
+                }
+                rateMetrics.recordParse(parse, currency, body.getCount(), observations);
+                return builder.build();
+            });
+            rateMetrics.recordFetch(fetch, currency, true);
+            return table;
+        } catch (RuntimeException e) {
+            rateMetrics.recordFetch(fetch, currency, false);
+            throw e;
+        }
+    }
+
+    /**
+     * Counts the failed downloads for the circuit breaker. Only I/O errors and 5xx responses are counted; other
+     * failures, such as client errors, malformed payloads or bulkhead rejections, are rethrown without touching
+     * the circuit. Registering them would make the breaker read them as exhausted and open at once.
+     */
+    private static final class CountedFailures extends SimpleRetryPolicy {
+
+        private CountedFailures(int failures) {
+            super(failures, Map.of(ResourceAccessException.class, true, HttpServerErrorException.class, true));
+        }
+
+        @Override
+        public void registerThrowable(RetryContext context, Throwable throwable) {
+            if (counts(throwable))
+                super.registerThrowable(context, throwable);
+        }
+
+        private static boolean counts(Throwable throwable) {
+            return throwable instanceof ResourceAccessException || throwable instanceof HttpServerErrorException;
+        }
+    }
+
+    /**
+     * Counts the bytes of the response body as the SDMX reader pulls them.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0)
+                count += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
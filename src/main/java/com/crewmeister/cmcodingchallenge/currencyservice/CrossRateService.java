@@ -0,0 +1,17 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import com.crewmeister.cmcodingchallenge.currency.CrossRateMatrix;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+
+public interface CrossRateService {
+
+    public CrossRateMatrix getCrossRateMatrix(LocalDate date);
+
+    public double getCrossFXAmount(LocalDate date, String from, String to, double amount);
+
+    public Map<String, Double> getCrossFXRates(LocalDate date, List<String> pairs);
+}
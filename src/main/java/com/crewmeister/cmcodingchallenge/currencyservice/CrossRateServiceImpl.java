@@ -0,0 +1,149 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import com.crewmeister.cmcodingchallenge.CacheConfig;
+import com.crewmeister.cmcodingchallenge.currency.CrossRateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts between any two currencies through their EUR legs, EUR itself being one of the currencies.
+ */
+@Service
+public class CrossRateServiceImpl implements CrossRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrossRateServiceImpl.class);
+
+    public static final String EUR = "EUR";
+
+    private static final int AMOUNT_SCALE = 8;
+
+    private static final int RESULT_SCALE = 4;
+
+    private final FXRateStore rateStore;
+
+    private CrossRateService self = this;
+
+    public CrossRateServiceImpl(FXRateStore rateStore) {
+        this.rateStore = rateStore;
+    }
+
+    /**
+     * Routes internal calls through the Spring proxy, so that the matrices are served from the cache.
+     */
+    @Autowired
+    public void setSelf(@Lazy CrossRateService self) {
+        this.self = self;
+    }
+
+    /**
+     * Matrices are cached by date and by the version of the rate store, so any table stored since, whether
+     * refreshed or mapped from a local series file, makes the next lookup build a new matrix.
+     */
+    @Cacheable(value = CacheConfig.CROSS_RATE_MATRICES, key = "{#date, @FXRateStore.version}")
+    @Override
+    public CrossRateMatrix getCrossRateMatrix(LocalDate date) {
+        int capacity = CurrencyConstants.values().length + 1;
+        String[] currencies = new String[capacity];
+        long[] eurUnits = new long[capacity];
+        int[] scales = new int[capacity];
+        currencies[0] = EUR;
+        eurUnits[0] = 1;
+        int size = 1;
+        for (Map.Entry<CurrencyConstants, CurrencyRateTable> stored : rateStore.getTables().entrySet()) {
+            long units = stored.getValue().getUnits(date);
+            if (units != FixedPoint.MISSING) {
+                currencies[size] = stored.getKey().name();
+                eurUnits[size] = units;
+                scales[size] = stored.getValue().getScale();
+                size++;
+            }
+        }
+        logger.info("Built cross rate matrix of {} currencies for {}", size, date);
+        return new CrossRateMatrix(date, Arrays.copyOf(currencies, size), Arrays.copyOf(eurUnits, size),
+                Arrays.copyOf(scales, size));
+    }
+
+    /**
+     * Converts through both EUR legs in fixed point, {@code amount * to / from} with one HALF_UP rounding to
+     * {@link #RESULT_SCALE} decimals, like the EUR conversions of {@link CurrencyServiceImpl}.
+     */
+    @Override
+    public double getCrossFXAmount(LocalDate date, String from, String to, double amount) {
+        CurrencyRateTable fromTable = eurTable(from);
+        CurrencyRateTable toTable = eurTable(to);
+        return FixedPoint.convert(amount, AMOUNT_SCALE,
+                eurUnits(toTable, date), toTable == null ? 0 : toTable.getScale(),
+                eurUnits(fromTable, date), fromTable == null ? 0 : fromTable.getScale(), RESULT_SCALE);
+    }
+
+    /**
+     * Looks up many pairs, written as "FROM/TO", from the cached cross rate matrix of the day. Every currency is
+     * checked before the lookup, so only a pair of loaded currencies without rates on the date is not found.
+     */
+    @Override
+    public Map<String, Double> getCrossFXRates(LocalDate date, List<String> pairs) {
+        List<String[]> legsOfPairs = new ArrayList<>(pairs.size());
+        for (String pair : pairs) {
+            String[] legs = pair.split("/");
+            if (legs.length != 2)
+                throw new IllegalArgumentException("Invalid currency pair '" + pair + "', expected format FROM/TO");
+            for (int i = 0; i < legs.length; i++) {
+                legs[i] = legs[i].trim();
+                eurTable(legs[i]);
+            }
+            legsOfPairs.add(legs);
+        }
+        CrossRateMatrix matrix = self.getCrossRateMatrix(date);
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            String pair = pairs.get(i);
+            String[] legs = legsOfPairs.get(i);
+            double rate = matrix.getRate(legs[0], legs[1]);
+            if (Double.isNaN(rate))
+                throw new IllegalArgumentException("Cross rate " + pair + " not found for date " + date);
+            rates.put(pair, rate);
+        }
+        return rates;
+    }
+
+    /**
+     * @return the stored table of the currency, or null for EUR, whose rate is 1 on every date
+     */
+    private CurrencyRateTable eurTable(String currency) {
+        if (EUR.equals(currency))
+            return null;
+        CurrencyConstants ccy;
+        try {
+            ccy = CurrencyConstants.valueOf(currency);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unsupported currency: " + currency);
+        }
+        return rateStore.getTable(ccy)
+                .orElseThrow(() -> new InvalidRequestException("FX rates for currency " + currency + " are not loaded yet, please retry later"));
+    }
+
+    private static long eurUnits(CurrencyRateTable table, LocalDate date) {
+        if (table == null)
+            return 1;
+        long units = table.getUnits(date);
+        if (units == FixedPoint.MISSING)
+            throw new IllegalArgumentException("Conversion rate not found for date " + date);
+        return units;
+    }
+}
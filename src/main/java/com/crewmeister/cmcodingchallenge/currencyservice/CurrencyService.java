@@ -1,9 +1,17 @@
 package com.crewmeister.cmcodingchallenge.currencyservice;
 
 import com.crewmeister.cmcodingchallenge.currency.Currency;
+import com.crewmeister.cmcodingchallenge.currency.RateExportFormat;
+import com.crewmeister.cmcodingchallenge.currency.RateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionResultDto;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 
 public interface CurrencyService {
@@ -12,7 +20,48 @@ public interface CurrencyService {
 
     public List<Currency> addCurrency(List<Currency> currency);
 
+    public Optional<Currency> getCurrencyByName(String currencyName);
+
+    public void refreshRates(String currency);
+
+    /**
+     * @return true if the rates of the currency, or of any currency if it is null, are served from a series whose
+     * last refresh failed
+     */
+    public boolean isStale(String currency);
+
+    /**
+     * @return true if the rates of the currency up to the date can no longer change: a rate is published on or
+     * after it and the series is not stale
+     */
+    public boolean isFinal(String currency, LocalDate until);
+
     public Map<String, Map<String,String>> getFXRates(String date,String currency);
 
+    public Map<String, Map<String,String>> getFXRates(String date, String currency, RateResolution resolution);
+
+    public Map<String, Map<String,String>> getFXRates(LocalDate from, LocalDate to, String currency);
+
+    /**
+     * Columnar variant of {@link #getFXRates(String, String, RateResolution)}, all history if the date is null.
+     */
+    public RateMatrix getRateMatrix(LocalDate date, String currency, RateResolution resolution);
+
+    /**
+     * Columnar variant of {@link #getFXRates(LocalDate, LocalDate, String)}.
+     */
+    public RateMatrix getRateMatrix(LocalDate from, LocalDate to, String currency);
+
     public double getFXAmount(String date, String currency, double amount);
+
+    public double getFXAmount(String date, String currency, double amount, RateResolution resolution);
+
+    public List<FXConversionResultDto> getFXAmounts(List<FXConversionDto> conversions);
+
+    /**
+     * Converts the items of one batch as they come, for batches streamed rather than held in a list.
+     */
+    public Function<FXConversionDto, FXConversionResultDto> newBatchConversion();
+
+    public RateExport exportFXRates(String currency, LocalDate from, LocalDate to, RateExportFormat format);
 }
@@ -1,179 +1,588 @@
 package com.crewmeister.cmcodingchallenge.currencyservice;
 
-import com.crewmeister.cmcodingchallenge.currency.CurrencyConversionRates;
+import com.crewmeister.cmcodingchallenge.CacheConfig;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import com.crewmeister.cmcodingchallenge.currency.RateExportFormat;
+import com.crewmeister.cmcodingchallenge.currency.RateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
 import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
-import com.crewmeister.cmcodingchallenge.xmldata.GenericData;
 import com.crewmeister.cmcodingchallenge.currency.Currency;
 import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRepository;
-import com.crewmeister.cmcodingchallenge.xmldata.Observation;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationDao;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationRepository;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionResultDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.net.SocketTimeoutException;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Function;
 
 @Service
 public class CurrencyServiceImpl implements CurrencyService {
 
     private static final Logger logger = LoggerFactory.getLogger(CurrencyServiceImpl.class);
-    private final RestTemplate restTemplate;
 
-    private static final int RETRY_ATTEMPTS = 3;
-    private static final long DELAY = 2000L;
+    private static final int AMOUNT_SCALE = 8;
 
-    @Value("${bundesbank.api.base.url}")
-    private String bundesBaseUrl;
+    private static final int RESULT_SCALE = 4;
 
-    @Value("${bundesbank.api.key}")
-    private String bundesApiKey;
+    private final BundesbankClient bundesbankClient;
 
-    @Value("${bundesbank.api.format}")
-    private String bundesApiFormat;
+    private final CurrencyRepository currencyRepository;
 
-    @Value("${bundesbank.api.lang}")
-    private String bundesApiLang;
+    private final FXRateStore rateStore;
 
+    private final FXObservationDao observationDao;
 
-    private final CurrencyRepository currencyRepository;
+    private final FXObservationRepository observationRepository;
+
+    private final CacheManager cacheManager;
+
+    private CurrencyService self = this;
 
-    public CurrencyServiceImpl(RestTemplate restTemplate, CurrencyRepository currencyRepository) {
-        this.restTemplate = restTemplate;
+    public CurrencyServiceImpl(BundesbankClient bundesbankClient, CurrencyRepository currencyRepository, FXRateStore rateStore,
+                               FXObservationDao observationDao, FXObservationRepository observationRepository,
+                               CacheManager cacheManager) {
+        this.bundesbankClient = bundesbankClient;
         this.currencyRepository = currencyRepository;
+        this.rateStore = rateStore;
+        this.observationDao = observationDao;
+        this.observationRepository = observationRepository;
+        this.cacheManager = cacheManager;
     }
 
 
-    @Cacheable("availableCurrencies")
+    /**
+     * Routes internal calls through the Spring proxy, so that they are served from the cache too.
+     */
+    @Autowired
+    public void setSelf(@Lazy CurrencyService self) {
+        this.self = self;
+    }
+
+    /**
+     * Loaded with {@code sync}, i.e. inside the cache's per-key lock, so that {@link #addCurrency} evicting the
+     * entry waits for a load in progress instead of letting it store a list read before the new rows committed.
+     */
+    @Cacheable(value = CacheConfig.AVAILABLE_CURRENCIES, sync = true)
     @Override
     public List<Currency> getListOfAvailableCurrencies() {
         return currencyRepository.findAll();
     }
 
-    @CacheEvict(value = "availableCurrencies", allEntries = true)
+    /**
+     * Registers the currencies idempotently: names are de-duplicated, the ones already registered are read in
+     * one query and only the new ones are inserted, in one batch. The new currencies are added to the cached
+     * lookups by name; the cached currency list is evicted once the batch has committed.
+     *
+     * @return the registered currency of every distinct requested name, in request order
+     */
     @Override
     public List<Currency> addCurrency(List<Currency> currency) {
-        return currencyRepository.saveAll(currency);
+        Set<String> names = new LinkedHashSet<>();
+        for (Currency requested : currency) {
+            if (requested.getCurrencyName() != null && !requested.getCurrencyName().trim().isEmpty())
+                names.add(requested.getCurrencyName().trim());
+        }
+        Map<String, Currency> registered = new HashMap<>();
+        List<Currency> created = new ArrayList<>();
+        for (int attempt = 1; ; attempt++) {
+            registered.clear();
+            created.clear();
+            for (Currency existing : currencyRepository.findByCurrencyNameIn(names))
+                registered.put(existing.getCurrencyName(), existing);
+            for (String name : names) {
+                if (!registered.containsKey(name))
+                    created.add(new Currency(null, name));
+            }
+            if (created.isEmpty())
+                break;
+            try {
+                created = currencyRepository.saveAll(created);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // a concurrent registration inserted one of the names first; read the winners and retry once
+                if (attempt == 2)
+                    throw e;
+                logger.info("Concurrent registration of currencies {}, retrying", names);
+            }
+        }
+        for (Currency saved : created)
+            registered.put(saved.getCurrencyName(), saved);
+        addToCaches(created);
+        logger.info("Registered {} currencies, {} of them new", names.size(), created.size());
+        List<Currency> result = new ArrayList<>(names.size());
+        for (String name : names)
+            result.add(registered.get(name));
+        return result;
     }
 
-    @Cacheable(value = "currencyByName", key = "currencyName")
+    private void addToCaches(List<Currency> created) {
+        if (created.isEmpty())
+            return;
+        Cache byName = cacheManager.getCache(CacheConfig.CURRENCY_BY_NAME);
+        if (byName != null) {
+            for (Currency saved : created)
+                byName.put(saved.getCurrencyName(), Optional.of(saved));
+        }
+        Cache available = cacheManager.getCache(CacheConfig.AVAILABLE_CURRENCIES);
+        if (available != null)
+            available.evict(SimpleKey.EMPTY);
+    }
+
+    @Cacheable(value = CacheConfig.CURRENCY_BY_NAME, key = "#currencyName")
+    @Override
     public Optional<Currency> getCurrencyByName(String currencyName) {
         return currencyRepository.findCurrencyName(currencyName);
     }
 
+    /**
+     * Loads the full series on the first refresh of a currency, from the database if it holds observations of
+     * the currency and from Bundesbank otherwise; the database outlives restarts, so after one only the days since
+     * its last stored date are downloaded. Later refreshes only ask Bundesbank for observations after the last
+     * stored date and append them to the stored series. Every downloaded observation is upserted into the database.
+     * If the download fails, a stored series keeps being served and is marked as stale until a refresh succeeds.
+     */
     @Override
-    public Map<String, Map<String, String>> getFXRates(String date,String currency) {
-        List<Currency> currencies = new ArrayList<>();
-        if(currency==null ||  currency.isEmpty() )
-            currencies= getListOfAvailableCurrencies();//Assuming DB has values; if not insert values from controller
-        else {
-            Optional<Currency> ccy = getCurrencyByName(currency);
-            if(ccy.isPresent())
-                currencies.add(ccy.get());
-            else{
-                throw new RuntimeException("Invalid Currency Name as validated from db");
+    public void refreshRates(String currency) {
+        CurrencyConstants ccy = toCurrencyConstant(currency);
+        logger.info("Refreshing rates for currency: {}", currency);
+        Optional<CurrencyRateTable> stored = rateStore.getTable(ccy);
+        if (stored.isEmpty()) {
+            Optional<LocalDate> lastPersisted = observationRepository.findLastDate(currency);
+            if (lastPersisted.isPresent()) {
+                CurrencyRateTable persisted = observationDao.load(currency);
+                rateStore.putTable(ccy, persisted);
+                stored = Optional.of(persisted);
+                logger.info("Restored {} days of rates for currency {} up to {} from the database",
+                        persisted.length(), currency, lastPersisted.get());
+            }
+        }
+        LocalDate startPeriod = stored.map(table -> table.getLastDate().plusDays(1)).orElse(null);
+        CurrencyRateTable table = fetchRates(ccy, startPeriod, stored.isPresent());
+        if (!table.isEmpty())
+            logger.info("Persisted {} observations for currency {}", observationDao.upsert(currency, table), currency);
+        if (stored.isPresent()) {
+            if (table.isEmpty()) {
+                rateStore.markFresh(ccy);
+                logger.info("No new observations for currency {} since {}", currency, startPeriod);
+                return;
+            }
+            rateStore.putTable(ccy, stored.get().mergedWith(table));
+            rateStore.markFresh(ccy);
+            logger.info("Appended {} days of rates for currency {}", table.length(), currency);
+            return;
+        }
+        if (table.isEmpty()) {
+            logger.error("Received empty response for currency {}", currency);
+            throw new RuntimeException("Generic data is unavailable for currency: " + currency);
+        }
+        rateStore.putTable(ccy, table);
+        rateStore.markFresh(ccy);
+        logger.info("Stored {} days of rates for currency {}", table.length(), currency);
+    }
+
+    private CurrencyRateTable fetchRates(CurrencyConstants ccy, LocalDate startPeriod, boolean stored) {
+        try {
+            return bundesbankClient.fetchRates(ccy.name(), startPeriod);
+        } catch (RuntimeException e) {
+            if (stored) {
+                rateStore.markStale(ccy);
+                logger.warn("Serving stale rates for currency {}, failed to fetch data from Bundesbank: {}", ccy, e.getMessage());
+            } else {
+                logger.error("Failed to fetch data from Bundesbank for currency {}: {}", ccy, e.getMessage());
             }
+            throw new InvalidRequestException("Unable to retrieve FX rate data, please check logs for more details");
+        }
+    }
 
+    @Override
+    public boolean isStale(String currency) {
+        if (currency == null || currency.isEmpty())
+            return rateStore.hasStaleTables();
+        try {
+            return rateStore.isStale(CurrencyConstants.valueOf(currency));
+        } catch (IllegalArgumentException e) {
+            return false;
         }
+    }
+
+    @Override
+    public boolean isFinal(String currency, LocalDate until) {
+        if (currency == null || currency.isEmpty() || until == null)
+            return false;
+        CurrencyRateTable table = findTable(currency);
+        return table != null && !isStale(currency) && table.resolveOffset(until, RateResolution.NEXT) >= 0;
+    }
+
+    @Override
+    public Map<String, Map<String, String>> getFXRates(String date,String currency) {
+        return getFXRates(date, currency, RateResolution.EXACT);
+    }
+
+    /**
+     * With a fallback resolution, a date without a published rate is answered with the rate of the previous or
+     * next business day, keyed by the date that rate was published on.
+     */
+    @Override
+    public Map<String, Map<String, String>> getFXRates(String date, String currency, RateResolution resolution) {
+        List<Currency> currencies = resolveCurrencies(currency);
+        LocalDate rateDate = date == null || date.isEmpty() ? null : LocalDate.parse(date);
         Map<String, Map<String, String>> fxMapResult = new TreeMap<>();
+        List<String> notLoaded = new ArrayList<>();
         for(Currency fxcurrency: currencies) {
-            logger.info("Processing currency: {}",fxcurrency.getCurrencyName());
-            String url = buildUrl(fxcurrency.getCurrencyName());
-            logger.info("Requesting FX data from URL: {} ", url);
-            GenericData genericData = fetchRates(url, fxcurrency.getCurrencyName());
-            if (genericData == null || genericData.dataSet == null || genericData.dataSet.series == null) {
-                logger.warn("Received empty response for currency {}", fxcurrency.getCurrencyName());
+            CurrencyRateTable table = findTable(fxcurrency.getCurrencyName());
+            if (table == null) {
+                notLoaded.add(fxcurrency.getCurrencyName());
                 continue;
             }
-            Map<String, String> fxMap = new TreeMap<>();
-
-
-            for (Observation obs : genericData.dataSet.series.observations) {
-                if (date == null || date.isEmpty()) {
-                    if (obs.value == null)
-                        continue;
-                    fxMap.put(obs.dimension.date, obs.value.rate);
-                } else {
-                    if (obs.dimension.date.equals(date) && obs.value != null) {
-                        fxMap.put(obs.dimension.date, obs.value.rate);
-                        break;
-                    }
-                    else if (obs.dimension.date.equals(date) && obs.value == null) {
-                        fxMap.put(date, "Rate cannot be fetched as it is weekend or public holiday");
-                        break;
-                    }
+            Map<String, String> fxMap;
+            if (rateDate == null) {
+                fxMap = ratesBetween(table, 0, table.length());
+            } else if (resolution != RateResolution.EXACT) {
+                fxMap = new TreeMap<>();
+                int offset = table.resolveOffset(rateDate, resolution);
+                if (offset >= 0)
+                    fxMap.put(table.getDateAt(offset).toString(), table.formatRate(table.getUnitsAt(offset)));
+            } else {
+                fxMap = new TreeMap<>();
+                if (table.covers(rateDate)) {
+                    long rate = table.getUnits(rateDate);
+                    fxMap.put(date, rate != FixedPoint.MISSING ? table.formatRate(rate) : "Rate cannot be fetched as it is weekend or public holiday");
                 }
             }
             fxMapResult.put(fxcurrency.getCurrencyName(), fxMap);
         }
+        logNotLoaded(notLoaded);
+        return fxMapResult;
+    }
 
+    /**
+     * Returns the published rates between both dates, inclusive. Either bound may be null for an open range.
+     * The range is sliced out of each table by day offset, so the cost depends on the range, not on the history.
+     */
+    @Override
+    public Map<String, Map<String, String>> getFXRates(LocalDate from, LocalDate to, String currency) {
+        if (from != null && to != null && from.isAfter(to))
+            throw new IllegalArgumentException("Parameter 'from' must not be after 'to'");
+        List<Currency> currencies = resolveCurrencies(currency);
+        Map<String, Map<String, String>> fxMapResult = new TreeMap<>();
+        List<String> notLoaded = new ArrayList<>();
+        for (Currency fxcurrency : currencies) {
+            CurrencyRateTable table = findTable(fxcurrency.getCurrencyName());
+            if (table == null) {
+                notLoaded.add(fxcurrency.getCurrencyName());
+                continue;
+            }
+            fxMapResult.put(fxcurrency.getCurrencyName(), ratesBetween(table, table.startOffset(from), table.endOffset(to)));
+        }
+        logNotLoaded(notLoaded);
         return fxMapResult;
     }
 
+    /**
+     * The date axis only holds the dates a rate is returned for, which with a fallback resolution may differ
+     * between currencies; a currency without a rate on one of them reads as null there.
+     */
     @Override
-    public double getFXAmount(String date, String currency, double amount) {
+    public RateMatrix getRateMatrix(LocalDate date, String currency, RateResolution resolution) {
+        if (date == null)
+            return getRateMatrix(null, null, currency);
+        List<String> names = new ArrayList<>();
+        List<CurrencyRateTable> tables = loadedTables(resolveCurrencies(currency), names);
+        int[] starts = new int[tables.size()];
+        int[] ends = new int[tables.size()];
+        for (int column = 0; column < tables.size(); column++) {
+            int offset = tables.get(column).resolveOffset(date, resolution);
+            starts[column] = offset;
+            ends[column] = offset >= 0 ? offset + 1 : offset;
+        }
+        return rateMatrix(names, tables, starts, ends);
+    }
 
-        logger.info("Processing currency: {}",currency);
-        CurrencyConversionRates ccr = null;
-        String url = buildUrl(currency);
-        logger.info("Requesting FX data from URL: {} ", url);
-        GenericData genericData = fetchRates(url,currency);
-        if (genericData == null || genericData.dataSet == null || genericData.dataSet.series == null) {
-            logger.error("Received empty response for currency {}", currency);
-            throw new RuntimeException("Generic data is unavailable for currency: " + currency);
+    @Override
+    public RateMatrix getRateMatrix(LocalDate from, LocalDate to, String currency) {
+        if (from != null && to != null && from.isAfter(to))
+            throw new IllegalArgumentException("Parameter 'from' must not be after 'to'");
+        List<String> names = new ArrayList<>();
+        List<CurrencyRateTable> tables = loadedTables(resolveCurrencies(currency), names);
+        int[] starts = new int[tables.size()];
+        int[] ends = new int[tables.size()];
+        for (int column = 0; column < tables.size(); column++) {
+            starts[column] = tables.get(column).startOffset(from);
+            ends[column] = tables.get(column).endOffset(to);
         }
-        for (Observation obs : genericData.dataSet.series.observations) {
-            if (obs.dimension.date.equals(date) && obs.value != null) {
-                ccr = new CurrencyConversionRates(Double.parseDouble(obs.value.rate));
-                break;
+        return rateMatrix(names, tables, starts, ends);
+    }
+
+    /**
+     * Returns the stored tables of the currencies sorted by name, adding their names to {@code names}.
+     */
+    private List<CurrencyRateTable> loadedTables(List<Currency> currencies, List<String> names) {
+        List<String> notLoaded = new ArrayList<>();
+        for (Currency fxcurrency : currencies) {
+            if (findTable(fxcurrency.getCurrencyName()) != null)
+                names.add(fxcurrency.getCurrencyName());
+            else
+                notLoaded.add(fxcurrency.getCurrencyName());
+        }
+        logNotLoaded(notLoaded);
+        Collections.sort(names);
+        List<CurrencyRateTable> tables = new ArrayList<>(names.size());
+        for (String name : names)
+            tables.add(findTable(name));
+        return tables;
+    }
+
+    /**
+     * Lays the offset window {@code [starts[i], ends[i])} of every table out on the dates where at least one of
+     * them has a published rate. Both passes walk the days of the windows once per table.
+     */
+    private RateMatrix rateMatrix(List<String> names, List<CurrencyRateTable> tables, int[] starts, int[] ends) {
+        int columns = tables.size();
+        long firstDay = Long.MAX_VALUE;
+        long endDay = Long.MIN_VALUE;
+        for (int column = 0; column < columns; column++) {
+            if (starts[column] >= ends[column])
+                continue;
+            long tableFirstDay = tables.get(column).getFirstEpochDay();
+            firstDay = Math.min(firstDay, tableFirstDay + starts[column]);
+            endDay = Math.max(endDay, tableFirstDay + ends[column]);
+        }
+        long[] epochDays = new long[firstDay < endDay ? Math.toIntExact(endDay - firstDay) : 0];
+        int dates = 0;
+        for (long day = firstDay; day < endDay; day++) {
+            for (int column = 0; column < columns; column++) {
+                if (unitsOn(tables.get(column), starts[column], ends[column], day) != FixedPoint.MISSING) {
+                    epochDays[dates++] = day;
+                    break;
+                }
             }
         }
+        epochDays = Arrays.copyOf(epochDays, dates);
+        long[][] units = new long[columns][];
+        int[] scales = new int[columns];
+        for (int column = 0; column < columns; column++) {
+            CurrencyRateTable table = tables.get(column);
+            units[column] = new long[dates];
+            for (int index = 0; index < dates; index++)
+                units[column][index] = unitsOn(table, starts[column], ends[column], epochDays[index]);
+            scales[column] = table.getScale();
+        }
+        return new RateMatrix(epochDays, names.toArray(new String[0]), units, scales);
+    }
 
-        if (ccr == null) {
-            throw new IllegalArgumentException("Conversion rate not found for date " + date);
+    private static long unitsOn(CurrencyRateTable table, int start, int end, long epochDay) {
+        long offset = epochDay - table.getFirstEpochDay();
+        return offset >= start && offset < end ? table.getUnitsAt((int) offset) : FixedPoint.MISSING;
+    }
+
+    /**
+     * Reports the currencies skipped by one request in a single line rather than one line per currency.
+     */
+    private void logNotLoaded(List<String> notLoaded) {
+        if (!notLoaded.isEmpty())
+            logger.warn("No rates stored yet for {} currencies: {}", notLoaded.size(), notLoaded);
+    }
+
+    private Map<String, String> ratesBetween(CurrencyRateTable table, int startOffset, int endOffset) {
+        Map<String, String> fxMap = new TreeMap<>();
+        for (int offset = startOffset; offset < endOffset; offset++) {
+            long rate = table.getUnitsAt(offset);
+            if (rate != FixedPoint.MISSING)
+                fxMap.put(LocalDate.ofEpochDay(table.getFirstEpochDay() + offset).toString(), table.formatRate(rate));
+        }
+        return fxMap;
+    }
+
+    /**
+     * Resolves the requested currency, or all available currencies when none is given.
+     * A single requested currency must be known in the db and already have its rates stored.
+     */
+    private List<Currency> resolveCurrencies(String currency) {
+        List<Currency> currencies = new ArrayList<>();
+        if(currency==null ||  currency.isEmpty() )
+            currencies= self.getListOfAvailableCurrencies();//Assuming DB has values; if not insert values from controller
+        else {
+            Optional<Currency> ccy = self.getCurrencyByName(currency);
+            if(ccy.isPresent())
+                currencies.add(ccy.get());
+            else{
+                throw new RuntimeException("Invalid Currency Name as validated from db");
+            }
+            if (!rateStore.hasTable(toCurrencyConstant(currency)))
+                throw new InvalidRequestException(notLoadedMessage(currency));
         }
-        logger.info("Conversion rate for {} on {} is {}",currency,date,ccr.getConversionRate());
-        double exchangedAmount = new BigDecimal(amount/ccr.getConversionRate()).setScale(4, RoundingMode.HALF_UP).doubleValue() ;
+        return currencies;
+    }
+
+    @Override
+    public double getFXAmount(String date, String currency, double amount) {
+        return getFXAmount(date, currency, amount, RateResolution.EXACT);
+    }
+
+    @Override
+    public double getFXAmount(String date, String currency, double amount, RateResolution resolution) {
+
+        CurrencyRateTable table = rateStore.getTable(toCurrencyConstant(currency))
+                .orElseThrow(() -> new InvalidRequestException(notLoadedMessage(currency)));
+        double exchangedAmount = convert(table, LocalDate.parse(date), amount, resolution);
+        logger.debug("Converted {} {} on {} to {} EUR",amount,currency,date,exchangedAmount);
 
         return exchangedAmount;
     }
 
-    private String buildUrl(String currencyName) {
-        String apiKey = String.format(bundesApiKey, currencyName);
-        return UriComponentsBuilder
-                .fromHttpUrl(bundesBaseUrl.endsWith("/") ? bundesBaseUrl : bundesBaseUrl + "/")
-                .pathSegment(apiKey)
-                .queryParam("format", bundesApiFormat)
-                .queryParam("lang", bundesApiLang)
-                .build()
-                .toUriString();
-    }
-    @Retryable(
-            value = { ResourceAccessException.class, SocketTimeoutException.class },
-            maxAttempts = RETRY_ATTEMPTS,
-            backoff = @Backoff(delay = DELAY)
-    )
-    private GenericData fetchRates(String url,String currency) {
+    /**
+     * Converts every item against the rate series of its currency, which is resolved only once per batch.
+     * Invalid items get an error in their own result instead of failing the batch.
+     */
+    @Override
+    public List<FXConversionResultDto> getFXAmounts(List<FXConversionDto> conversions) {
+        Function<FXConversionDto, FXConversionResultDto> conversion = newBatchConversion();
+        List<FXConversionResultDto> results = new ArrayList<>(conversions.size());
+        for (FXConversionDto item : conversions)
+            results.add(conversion.apply(item));
+        logger.debug("Converted batch of {} items", conversions.size());
+        return results;
+    }
+
+    /**
+     * The rate series of a currency is resolved on the first item of the batch that needs it and kept for the
+     * rest, so the conversion holds one entry per currency however many items pass through it.
+     */
+    @Override
+    public Function<FXConversionDto, FXConversionResultDto> newBatchConversion() {
+        Map<String, CurrencyRateTable> tablesByCurrency = new HashMap<>();
+        Map<String, String> unavailableCurrencies = new HashMap<>();
+        return conversion -> {
+            String currency = conversion.getCurrency();
+            if (currency != null && !tablesByCurrency.containsKey(currency) && !unavailableCurrencies.containsKey(currency)) {
+                try {
+                    tablesByCurrency.put(currency, rateStore.getTable(toCurrencyConstant(currency))
+                            .orElseThrow(() -> new InvalidRequestException(notLoadedMessage(currency))));
+                } catch (InvalidRequestException e) {
+                    unavailableCurrencies.put(currency, e.getMessage());
+                }
+            }
+            return convert(conversion, tablesByCurrency, unavailableCurrencies);
+        };
+    }
+
+    private FXConversionResultDto convert(FXConversionDto conversion, Map<String, CurrencyRateTable> tablesByCurrency,
+                                          Map<String, String> unavailableCurrencies) {
+        if (conversion.getDate() == null || conversion.getDate().isEmpty())
+            return FXConversionResultDto.failed(conversion, "Date is required");
+        if (conversion.getCurrency() == null || conversion.getCurrency().isEmpty())
+            return FXConversionResultDto.failed(conversion, "Currency is required");
+        if (conversion.getAmount() == null || conversion.getAmount() <= 0)
+            return FXConversionResultDto.failed(conversion, "Amount must be a positive number");
+        CurrencyRateTable table = tablesByCurrency.get(conversion.getCurrency());
+        if (table == null)
+            return FXConversionResultDto.failed(conversion, unavailableCurrencies.get(conversion.getCurrency()));
         try {
-            var response = restTemplate.getForEntity(url, GenericData.class);
-            GenericData genericData = response.getBody();
-            return genericData;
+            return FXConversionResultDto.converted(conversion,
+                    convert(table, LocalDate.parse(conversion.getDate()), conversion.getAmount(), RateResolution.EXACT));
+        } catch (DateTimeParseException e) {
+            return FXConversionResultDto.failed(conversion, "Date must be a LocalDate in format yyyy-MM-dd");
+        } catch (IllegalArgumentException e) {
+            return FXConversionResultDto.failed(conversion, e.getMessage());
         }
-        catch (Exception e) {
-            logger.error("Failed to fetch data from Bundesbank for currency {}: {}", currency, e.getMessage());
-            throw new InvalidRequestException("Unable to retrieve FX rate data, please check logs for more details");
+    }
+
+    /**
+     * Converts in fixed point: the amount is taken at {@link #AMOUNT_SCALE} decimals and divided by the published
+     * rate with exact HALF_UP rounding to {@link #RESULT_SCALE} decimals. The result is returned as the double
+     * nearest to that decimal, so it serializes without binary floating-point noise. Amounts too large for
+     * {@link #AMOUNT_SCALE} are converted through BigDecimal rather than saturating.
+     */
+    private double convert(CurrencyRateTable table, LocalDate date, double amount, RateResolution resolution) {
+        int offset = table.resolveOffset(date, resolution);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Conversion rate not found for date " + date);
         }
+        return FixedPoint.convert(amount, AMOUNT_SCALE, table.getUnitsAt(offset), table.getScale(), RESULT_SCALE);
+    }
+
+    /**
+     * Validates the request up front and returns an export that writes one row per published rate, so memory use
+     * stays constant however much history is exported.
+     */
+    @Override
+    public RateExport exportFXRates(String currency, LocalDate from, LocalDate to, RateExportFormat format) {
+        if (from != null && to != null && from.isAfter(to))
+            throw new IllegalArgumentException("Parameter 'from' must not be after 'to'");
+        List<String> currencies = new ArrayList<>();
+        if (currency == null || currency.isEmpty()) {
+            for (Currency fxcurrency : self.getListOfAvailableCurrencies())
+                currencies.add(fxcurrency.getCurrencyName());
+        } else {
+            // only the stored series is checked, the export does not require the currency in the db
+            if (!rateStore.hasTable(toCurrencyConstant(currency)))
+                throw new InvalidRequestException(notLoadedMessage(currency));
+            currencies.add(currency);
+        }
+        Collections.sort(currencies);
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (format == RateExportFormat.CSV)
+                writer.write("currency,date,rate\n");
+            for (String fxcurrency : currencies) {
+                CurrencyRateTable table = findTable(fxcurrency);
+                if (table == null)
+                    continue;
+                int end = table.endOffset(to);
+                for (int offset = table.startOffset(from); offset < end; offset++) {
+                    long rate = table.getUnitsAt(offset);
+                    if (rate == FixedPoint.MISSING)
+                        continue;
+                    String date = LocalDate.ofEpochDay(table.getFirstEpochDay() + offset).toString();
+                    if (format == RateExportFormat.CSV)
+                        writer.write(fxcurrency + "," + date + "," + table.formatRate(rate) + "\n");
+                    else
+                        writer.write("{\"currency\":\"" + fxcurrency + "\",\"date\":\"" + date + "\",\"rate\":" + table.formatRate(rate) + "}\n");
+                }
+                writer.flush();
+            }
+            writer.flush();
+        };
+    }
+
+    private CurrencyRateTable findTable(String currency) {
+        try {
+            return rateStore.getTable(CurrencyConstants.valueOf(currency)).orElse(null);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private CurrencyConstants toCurrencyConstant(String currency) {
+        try {
+            return CurrencyConstants.valueOf(currency);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Unsupported currency: " + currency);
+        }
+    }
 
+    private String notLoadedMessage(String currency) {
+        return "FX rates for currency " + currency + " are not loaded yet, please retry later";
     }
 
 }
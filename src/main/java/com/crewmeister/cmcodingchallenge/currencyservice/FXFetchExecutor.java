@@ -0,0 +1,37 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded pool for Bundesbank downloads; its size caps the number of concurrent upstream requests.
+ */
+@Component
+public class FXFetchExecutor {
+
+    private final ExecutorService executor;
+
+    public FXFetchExecutor(@Value("${fx.fetch.concurrency}") int concurrency) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("fx-fetch-");
+        threadFactory.setDaemon(true);
+        this.executor = Executors.newFixedThreadPool(concurrency, threadFactory);
+    }
+
+    /**
+     * Runs the task on the pool without waiting for it; the returned future completes when the task has run.
+     */
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
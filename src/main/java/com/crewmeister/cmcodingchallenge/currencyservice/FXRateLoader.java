@@ -0,0 +1,149 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single entry point for Bundesbank downloads of a rate series. At most one download per currency is in
+ * flight: callers asking for a currency that is already being fetched share the pending future instead of
+ * starting another download, and see the stored series once it completes.
+ * <p>
+ * Downloads run on the fetch executor and never block the calling thread: requests use
+ * {@link #ensureLoaded(String)}, the refresh job uses {@link #refresh(String)}.
+ */
+@Component
+public class FXRateLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(FXRateLoader.class);
+
+    private final CurrencyService currencyService;
+
+    private final FXRateStore rateStore;
+
+    private final FXFetchExecutor fetchExecutor;
+
+    private final FXRateSnapshot snapshot;
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder started = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    public FXRateLoader(CurrencyService currencyService, FXRateStore rateStore, FXFetchExecutor fetchExecutor,
+                        FXRateSnapshot snapshot) {
+        this.currencyService = currencyService;
+        this.rateStore = rateStore;
+        this.fetchExecutor = fetchExecutor;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * A currency missing from the store is mapped from its local series file if there is one, and only
+     * downloaded otherwise.
+     *
+     * @return a future that completes once the rates of the currency are stored, already completed if they are
+     */
+    public CompletableFuture<Void> ensureLoaded(String currency) {
+        CurrencyConstants ccy;
+        try {
+            ccy = CurrencyConstants.valueOf(currency);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new InvalidRequestException("Unsupported currency: " + currency));
+        }
+        if (rateStore.hasTable(ccy) || snapshot.load(rateStore, ccy))
+            return CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> flight = new CompletableFuture<>();
+        CompletableFuture<Void> pending = inFlight.putIfAbsent(currency, flight);
+        if (pending != null) {
+            coalesced.increment();
+            return pending;
+        }
+        logger.info("Rates for currency {} are not loaded yet, fetching them on demand", currency);
+        submit(currency, flight);
+        return flight;
+    }
+
+    /**
+     * Downloads the latest rates of the currency, or joins the download already in flight. No pool thread waits
+     * on another download, so a refresh run cannot starve the on-demand downloads it shares the pool with.
+     *
+     * @return a future that completes once the download has finished
+     */
+    public CompletableFuture<Void> refresh(String currency) {
+        CompletableFuture<Void> flight = new CompletableFuture<>();
+        CompletableFuture<Void> pending = inFlight.putIfAbsent(currency, flight);
+        if (pending != null) {
+            coalesced.increment();
+            return pending;
+        }
+        submit(currency, flight);
+        return flight;
+    }
+
+    /**
+     * A download the pool rejects, for instance while it shuts down, fails its flight rather than leaving it in
+     * flight for every later caller to join.
+     */
+    private void submit(String currency, CompletableFuture<Void> flight) {
+        try {
+            fetchExecutor.runAsync(() -> download(currency, flight));
+        } catch (RejectedExecutionException e) {
+            land(currency, flight, e);
+        }
+    }
+
+    /**
+     * The flight completes whatever the download throws, errors included.
+     */
+    private void download(String currency, CompletableFuture<Void> flight) {
+        started.increment();
+        try {
+            currencyService.refreshRates(currency);
+        } catch (Throwable e) {
+            land(currency, flight, e);
+            throw e;
+        }
+        land(currency, flight, null);
+    }
+
+    /**
+     * The flight is removed before it completes, so whoever it wakes no longer sees it in flight.
+     */
+    private void land(String currency, CompletableFuture<Void> flight, Throwable failure) {
+        inFlight.remove(currency, flight);
+        if (failure == null)
+            flight.complete(null);
+        else
+            flight.completeExceptionally(failure);
+    }
+
+    /**
+     * @return the number of downloads actually sent to Bundesbank
+     */
+    public long getStartedCount() {
+        return started.sum();
+    }
+
+    /**
+     * @return the number of callers that shared a download already in flight instead of starting their own
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,60 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the Bundesbank download pipeline, tagged with the currency. Every series download attempt is timed
+ * from the request to the parsed table, together with the size of the response body, the time spent reading and
+ * parsing it and the number of observations it held. Repeated attempts are counted as retries.
+ */
+@Component
+public class FXRateMetrics {
+
+    private final MeterRegistry registry;
+
+    public FXRateMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordFetch(Timer.Sample sample, String currency, boolean success) {
+        sample.stop(Timer.builder("fx.fetch")
+                .description("Bundesbank download of one currency series, from the request to the parsed table")
+                .tags("currency", currency, "outcome", success ? "success" : "error")
+                .register(registry));
+    }
+
+    public void recordParse(Timer.Sample sample, String currency, long responseBytes, int observations) {
+        sample.stop(Timer.builder("fx.parse")
+                .description("Reading and parsing of the SDMX response body")
+                .tag("currency", currency)
+                .register(registry));
+        DistributionSummary.builder("fx.fetch.response.size")
+                .description("Size of the SDMX response body")
+                .baseUnit(BaseUnits.BYTES)
+                .tag("currency", currency)
+                .register(registry)
+                .record(responseBytes);
+        DistributionSummary.builder("fx.parse.observations")
+                .description("Observations read from one SDMX response")
+                .tag("currency", currency)
+                .register(registry)
+                .record(observations);
+    }
+
+    public void recordRetry(String currency) {
+        Counter.builder("fx.fetch.retries")
+                .description("Repeated Bundesbank download attempts")
+                .tag("currency", currency)
+                .register(registry)
+                .increment();
+    }
+}
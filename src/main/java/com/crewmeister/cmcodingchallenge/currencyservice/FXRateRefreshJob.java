@@ -0,0 +1,118 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import com.crewmeister.cmcodingchallenge.currency.Currency;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the local rate store up to date with Bundesbank, every business day after the
+ * daily reference rates are published; the first fill happens during {@link FXRateWarmUp}.
+ * Currencies are fetched in parallel on the bounded fetch executor, and a run waits for them at most its deadline.
+ */
+@Component
+public class FXRateRefreshJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(FXRateRefreshJob.class);
+
+    private final CurrencyService currencyService;
+
+    private final FXRateLoader rateLoader;
+
+    private final FXRateSnapshot snapshot;
+
+    private final FXRateStore rateStore;
+
+    @Value("${fx.fetch.deadline.ms}")
+    private long fetchDeadlineMs;
+
+    public FXRateRefreshJob(CurrencyService currencyService, FXRateLoader rateLoader, FXRateSnapshot snapshot,
+                            FXRateStore rateStore) {
+        this.currencyService = currencyService;
+        this.rateLoader = rateLoader;
+        this.snapshot = snapshot;
+        this.rateStore = rateStore;
+    }
+
+    @Scheduled(cron = "${fx.rates.refresh.cron}", zone = "${fx.rates.refresh.zone}")
+    public void refreshAllRates() {
+        refreshRates(currenciesToRefresh());
+        snapshot.save(rateStore);
+    }
+
+    /**
+     * Refreshes the given currencies concurrently and waits at most the configured deadline.
+     *
+     * @return the outcome per currency, in currency order
+     */
+    public Map<String, String> refreshRates(List<String> currencies) {
+        return refreshRates(currencies, fetchDeadlineMs);
+    }
+
+    /**
+     * Downloads still running at the deadline are reported as timed out and left to finish in the background,
+     * bounded by the HTTP timeouts, so a later run or request joins them instead of downloading again.
+     */
+    public Map<String, String> refreshRates(List<String> currencies, long deadlineMs) {
+        List<CompletableFuture<Void>> flights = new ArrayList<>();
+        for (String currency : currencies)
+            flights.add(rateLoader.refresh(currency));
+        try {
+            CompletableFuture.allOf(flights.toArray(new CompletableFuture<?>[0])).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // reported per currency below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Rate refresh was interrupted");
+            return Map.of();
+        }
+        Map<String, String> outcomes = new TreeMap<>();
+        for (int i = 0; i < flights.size(); i++) {
+            outcomes.put(currencies.get(i), outcomeOf(currencies.get(i), flights.get(i), deadlineMs));
+        }
+        long failed = outcomes.values().stream().filter(outcome -> !"OK".equals(outcome)).count();
+        logger.info("Rate refresh finished for {} currencies, {} failed", currencies.size(), failed);
+        return outcomes;
+    }
+
+    private String outcomeOf(String currency, CompletableFuture<Void> flight, long deadlineMs) {
+        if (!flight.isDone()) {
+            logger.warn("Refreshing rates for currency {} did not finish within {} ms", currency, deadlineMs);
+            return "TIMED_OUT";
+        }
+        try {
+            flight.join();
+            return "OK";
+        } catch (CompletionException e) {
+            logger.warn("Refreshing rates for currency {} failed: {}", currency, e.getCause().getMessage());
+            return "FAILED";
+        }
+    }
+
+    List<String> currenciesToRefresh() {
+        List<Currency> currencies = currencyService.getListOfAvailableCurrencies();
+        if (!currencies.isEmpty())
+            return currencies.stream().map(Currency::getCurrencyName).collect(Collectors.toList());
+        //if db doesnt have data , we refresh every currency from enum
+        List<String> currencyNames = new ArrayList<>();
+        for (CurrencyConstants ccy : CurrencyConstants.values())
+            currencyNames.add(ccy.name());
+        return currencyNames;
+    }
+}
@@ -0,0 +1,89 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Preloads the rate store before the application reports ready. Spring Boot keeps the readiness state at
+ * REFUSING_TRAFFIC until all application runners have returned, so requests are only routed here once the
+ * warm-up has finished or its deadline has passed.
+ * <p>
+ * The series are first read from the local snapshot if one is configured; the warm-up currencies still
+ * missing are then downloaded in parallel. The remaining currencies, and the days published since the
+ * snapshot was written, are fetched in the background once the application is up.
+ */
+@Component
+public class FXRateWarmUp implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FXRateWarmUp.class);
+
+    private final FXRateRefreshJob refreshJob;
+
+    private final FXRateStore rateStore;
+
+    private final FXRateSnapshot snapshot;
+
+    private final TaskScheduler taskScheduler;
+
+    @Value("${fx.rates.refresh.on.startup:true}")
+    private boolean refreshOnStartup;
+
+    @Value("${fx.warmup.currencies:}")
+    private List<String> warmUpCurrencies;
+
+    @Value("${fx.warmup.deadline.ms}")
+    private long warmUpDeadlineMs;
+
+    public FXRateWarmUp(FXRateRefreshJob refreshJob, FXRateStore rateStore, FXRateSnapshot snapshot,
+                        TaskScheduler taskScheduler) {
+        this.refreshJob = refreshJob;
+        this.rateStore = rateStore;
+        this.snapshot = snapshot;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!refreshOnStartup)
+            return;
+        long start = System.nanoTime();
+        int restored = snapshot.load(rateStore);
+        List<String> missing = new ArrayList<>();
+        for (String currency : currenciesToWarmUp()) {
+            if (!rateStore.hasTable(CurrencyConstants.valueOf(currency)))
+                missing.add(currency);
+        }
+        Map<String, String> outcomes = missing.isEmpty() ? Map.of() : refreshJob.refreshRates(missing, warmUpDeadlineMs);
+        logger.info("Warm-up restored {} series from snapshot and downloaded {} in {} ms, outcomes {}",
+                restored, missing.size(), (System.nanoTime() - start) / 1_000_000, outcomes);
+        taskScheduler.schedule(refreshJob::refreshAllRates, Instant.now());
+    }
+
+    private List<String> currenciesToWarmUp() {
+        List<String> currencies = new ArrayList<>();
+        List<String> configured = warmUpCurrencies == null || warmUpCurrencies.isEmpty()
+                ? refreshJob.currenciesToRefresh() : warmUpCurrencies;
+        for (String currency : configured) {
+            try {
+                CurrencyConstants.valueOf(currency.trim());
+                currencies.add(currency.trim());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping unsupported warm-up currency {}", currency);
+            }
+        }
+        return currencies;
+    }
+}
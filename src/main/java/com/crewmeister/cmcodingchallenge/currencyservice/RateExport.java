@@ -0,0 +1,13 @@
+package com.crewmeister.cmcodingchallenge.currencyservice;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A validated export of stored rates that is written row by row when the response body is streamed.
+ */
+@FunctionalInterface
+public interface RateExport {
+
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -34,6 +34,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .authorizeRequests()
                 .antMatchers("/cmfxapi/**").permitAll()
                 .antMatchers("/h2-console/**").permitAll()
+                .antMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .formLogin();
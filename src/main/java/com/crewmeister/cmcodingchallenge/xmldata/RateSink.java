@@ -0,0 +1,15 @@
+package com.crewmeister.cmcodingchallenge.xmldata;
+
+/**
+ * Receives the observations of an SDMX series one at a time, in the order they are read.
+ */
+public interface RateSink {
+
+    /**
+     * @param epochDay the observation date as {@link java.time.LocalDate#toEpochDay()}
+     * @param rateUnits the published rate without its decimal point, e.g. 16240 for "162.40",
+     *                  or {@link com.crewmeister.cmcodingchallenge.currency.FixedPoint#MISSING} if the day has no value
+     * @param scale the number of decimals the rate was published with
+     */
+    void accept(long epochDay, long rateUnits, int scale);
+}
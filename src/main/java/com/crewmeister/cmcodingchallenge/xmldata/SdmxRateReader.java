@@ -0,0 +1,109 @@
+package com.crewmeister.cmcodingchallenge.xmldata;
+
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+
+/**
+ * Streaming reader for the Bundesbank SDMX GenericData feed. It pulls the generic:Obs
+ * elements with StAX and hands each one straight to a {@link RateSink}, so the series is
+ * never bound into {@link GenericData} objects.
+ */
+public class SdmxRateReader {
+
+    private static final String GENERIC_NS = "http://www.sdmx.org/resources/sdmxml/schemas/v2_1/data/generic";
+
+    private final XMLInputFactory inputFactory;
+
+    public SdmxRateReader() {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    }
+
+    /**
+     * Reads every observation of the series.
+     *
+     * @return the number of observations passed to the sink
+     */
+    public int read(InputStream in, RateSink sink) throws IOException {
+        return read(in, sink, null);
+    }
+
+    /**
+     * Reads the observations up to and including {@code lastDate} and stops as soon as a later
+     * date is seen, relying on Bundesbank returning the series in ascending date order.
+     *
+     * @return the number of observations passed to the sink
+     */
+    public int read(InputStream in, RateSink sink, LocalDate lastDate) throws IOException {
+        long lastEpochDay = lastDate != null ? lastDate.toEpochDay() : Long.MAX_VALUE;
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(in);
+            int count = 0;
+            String date = null;
+            String rate = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT && GENERIC_NS.equals(reader.getNamespaceURI())) {
+                    String name = reader.getLocalName();
+                    if ("Obs".equals(name)) {
+                        date = null;
+                        rate = null;
+                    } else if ("ObsDimension".equals(name)) {
+                        date = reader.getAttributeValue(null, "value");
+                    } else if ("ObsValue".equals(name)) {
+                        rate = reader.getAttributeValue(null, "value");
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "Obs".equals(reader.getLocalName())
+                        && GENERIC_NS.equals(reader.getNamespaceURI()) && date != null) {
+                    long epochDay = parseEpochDay(date);
+                    if (epochDay > lastEpochDay)
+                        break;
+                    if (rate == null || rate.isEmpty())
+                        sink.accept(epochDay, FixedPoint.MISSING, 0);
+                    else
+                        sink.accept(epochDay, FixedPoint.parseUnscaled(rate), FixedPoint.scaleOf(rate));
+                    count++;
+                }
+            }
+            return count;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed SDMX response: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // the underlying stream is owned and closed by the caller
+                }
+            }
+        }
+    }
+
+    private static long parseEpochDay(String date) {
+        if (date.length() == 10 && date.charAt(4) == '-' && date.charAt(7) == '-') {
+            return LocalDate.of(digits(date, 0, 4), digits(date, 5, 7), digits(date, 8, 10)).toEpochDay();
+        }
+        return LocalDate.parse(date).toEpochDay();
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9')
+                throw new NumberFormatException("Invalid observation date: " + value);
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
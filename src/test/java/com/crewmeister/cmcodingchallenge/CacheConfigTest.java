@@ -0,0 +1,173 @@
+package com.crewmeister.cmcodingchallenge;
+
+import com.crewmeister.cmcodingchallenge.currency.Currency;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationDao;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationRepository;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.BundesbankClient;
+import com.crewmeister.cmcodingchallenge.currencyservice.CrossRateService;
+import com.crewmeister.cmcodingchallenge.currencyservice.CrossRateServiceImpl;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyServiceImpl;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({CacheConfig.class, CurrencyServiceImpl.class, CrossRateServiceImpl.class, FXRateStore.class})
+@TestPropertySource(properties = {
+        "fx.cache.max.size=2",
+        "fx.cache.publication.time=16:30",
+        "fx.cache.publication.zone=Europe/Berlin",
+        "fx.response.cache.max.bytes=1048576"
+})
+public class CacheConfigTest {
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    @Autowired
+    private CrossRateService crossRateService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private FXRateStore rateStore;
+
+    @MockBean
+    private BundesbankClient bundesbankClient;
+
+    @MockBean
+    private CurrencyRepository currencyRepository;
+
+    @MockBean
+    private FXObservationDao observationDao;
+
+    @MockBean
+    private FXObservationRepository observationRepository;
+
+    @Test
+    void testLookupsThroughSelfAreCached() {
+        when(currencyRepository.findCurrencyName("INR")).thenReturn(Optional.of(new Currency(1L, "INR")));
+        rateStore.putTable(CurrencyConstants.INR, CurrencyRateTable.builder().add("2025-05-16", "95.8200").build());
+
+        currencyService.getFXRates("2025-05-16", "INR", RateResolution.EXACT);
+        currencyService.getFXRates("2025-05-16", "INR", RateResolution.EXACT);
+
+        verify(currencyRepository, times(1)).findCurrencyName("INR");
+    }
+
+    @Test
+    void testListLoadedDuringRegistrationIsNotCachedStale() throws Exception {
+        cacheManager.getCache(CacheConfig.AVAILABLE_CURRENCIES).clear();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(currencyRepository.findAll())
+                .thenAnswer(invocation -> {
+                    // read before the new currency commits, stored after it has
+                    List<Currency> snapshot = List.of(new Currency(1L, "AUD"));
+                    loading.countDown();
+                    committed.await(5, TimeUnit.SECONDS);
+                    Thread.sleep(100);
+                    return snapshot;
+                })
+                .thenReturn(List.of(new Currency(1L, "AUD"), new Currency(51L, "BGN")));
+        when(currencyRepository.findByCurrencyNameIn(any())).thenReturn(List.of());
+        when(currencyRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            committed.countDown();
+            return invocation.getArgument(0);
+        });
+
+        CompletableFuture<List<Currency>> concurrentLoad = CompletableFuture.supplyAsync(currencyService::getListOfAvailableCurrencies);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        currencyService.addCurrency(List.of(new Currency(null, "BGN")));
+
+        assertEquals(1, concurrentLoad.get(5, TimeUnit.SECONDS).size());
+        assertEquals(2, currencyService.getListOfAvailableCurrencies().size());
+        verify(currencyRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testCrossRateMatrixIsRebuiltOnceATableIsStored() {
+        LocalDate date = LocalDate.of(2025, 5, 16);
+        rateStore.putTable(CurrencyConstants.USD, CurrencyRateTable.builder().add("2025-05-16", "1.1200").build());
+        assertSame(crossRateService.getCrossRateMatrix(date), crossRateService.getCrossRateMatrix(date));
+
+        // stored without a refresh, as when mapped from a local series file
+        rateStore.putTable(CurrencyConstants.JPY, CurrencyRateTable.builder().add("2025-05-16", "162.40").build());
+
+        assertTrue(crossRateService.getCrossRateMatrix(date).contains("JPY"));
+        assertEquals(145.0, crossRateService.getCrossFXRates(date, List.of("USD/JPY")).get("USD/JPY"));
+    }
+
+    @Test
+    void testCachesAreBoundedBySize() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.CURRENCY_BY_NAME);
+        cache.clear();
+        cache.put("AUD", Optional.empty());
+        cache.put("BGN", Optional.empty());
+        cache.put("BRL", Optional.empty());
+
+        cache.getNativeCache().cleanUp();
+
+        assertEquals(2, cache.getNativeCache().estimatedSize());
+    }
+
+    @Test
+    void testCachesRecordStatistics() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.AVAILABLE_CURRENCIES);
+        CacheStats before = cache.getNativeCache().stats();
+        cache.put("key", List.of());
+
+        assertNotNull(cache.get("key"));
+        assertNull(cache.get("missing"));
+
+        CacheStats stats = cache.getNativeCache().stats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void testEntriesExpireAtTheNextPublication() {
+        // 16:00 in Berlin (CEST), half an hour before the publication
+        CacheConfig.UntilNextPublication beforePublication = untilNextPublication(Instant.parse("2025-05-16T14:00:00Z"));
+        assertEquals(Duration.ofMinutes(30).toNanos(), beforePublication.expireAfterCreate("key", "value", 0));
+        assertEquals(Duration.ofMinutes(30).toNanos(), beforePublication.expireAfterUpdate("key", "value", 0, 5));
+
+        // 17:00 in Berlin, after the publication: entries live until tomorrow's
+        CacheConfig.UntilNextPublication afterPublication = untilNextPublication(Instant.parse("2025-05-16T15:00:00Z"));
+        assertEquals(Duration.ofHours(23).plusMinutes(30).toNanos(), afterPublication.expireAfterCreate("key", "value", 0));
+
+        // reads do not extend the entry
+        assertEquals(42, afterPublication.expireAfterRead("key", "value", 0, 42));
+    }
+
+    private static CacheConfig.UntilNextPublication untilNextPublication(Instant now) {
+        return new CacheConfig.UntilNextPublication(LocalTime.of(16, 30), ZoneId.of("Europe/Berlin"), Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -1,16 +1,31 @@
 package com.crewmeister.cmcodingchallenge;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.annotation.EnableCaching;
 
-@SpringBootTest
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@SpringBootTest(properties = "fx.rates.refresh.on.startup=false")
+@AutoConfigureTestDatabase
 @EnableCaching
 
 class CmCodingChallengeApplicationTests {
 
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void rateLoaderMetersAreReadable() {
+		assertFalse(Double.isNaN(meterRegistry.get("fx.fetch.requests").tag("result", "started").functionCounter().count()));
+		assertFalse(Double.isNaN(meterRegistry.get("fx.fetch.in.flight").gauge().value()));
+	}
+
 }
@@ -0,0 +1,60 @@
+package com.crewmeister.cmcodingchallenge;
+
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest(properties = {"fx.rates.refresh.on.startup=true", "fx.warmup.currencies=USD,GBP", "fx.snapshot.dir="})
+@AutoConfigureTestDatabase
+class FXRateWarmUpReadinessTests {
+
+	/**
+	 * Readiness seen by the first download of each currency, once it has finished.
+	 */
+	private static final Map<String, ReadinessState> readinessAfterDownload = new ConcurrentHashMap<>();
+
+	@Autowired
+	private ApplicationAvailability availability;
+
+	@TestConfiguration
+	static class SlowDownloads {
+
+		/**
+		 * Stubbed before the application runners start, unlike a {@code @MockBean}.
+		 */
+		@Bean
+		@Primary
+		CurrencyService slowCurrencyService(ApplicationAvailability availability) {
+			CurrencyService currencyService = mock(CurrencyService.class);
+			doAnswer(invocation -> {
+				Thread.sleep(200);
+				readinessAfterDownload.putIfAbsent(invocation.getArgument(0), availability.getReadinessState());
+				return null;
+			}).when(currencyService).refreshRates(anyString());
+			return currencyService;
+		}
+	}
+
+	@Test
+	void readinessIsRefusedUntilWarmUpFinishes() {
+		assertEquals(ReadinessState.REFUSING_TRAFFIC, readinessAfterDownload.get("USD"));
+		assertEquals(ReadinessState.REFUSING_TRAFFIC, readinessAfterDownload.get("GBP"));
+		assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.crewmeister.cmcodingchallenge.controllertests;
+
+import com.crewmeister.cmcodingchallenge.CacheConfig;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencycontroller.AsyncCurrencyController;
+import com.crewmeister.cmcodingchallenge.currencycontroller.RateResponder;
+import com.crewmeister.cmcodingchallenge.currencycontroller.RateResponseCache;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
+import com.crewmeister.cmcodingchallenge.security.MyUserDetailsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AsyncCurrencyController.class)
+@Import({RateResponder.class, RateResponseCache.class, CacheConfig.class})
+public class AsyncCurrencyControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    CurrencyService currencyService;
+
+    @MockBean
+    FXRateLoader rateLoader;
+
+    @MockBean
+    private MyUserDetailsService userDetailsService;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void testGetFXAmountAfterOnDemandLoad() throws Exception {
+        CompletableFuture<Void> load = new CompletableFuture<>();
+        Mockito.when(rateLoader.ensureLoaded("INR")).thenReturn(load);
+        Mockito.when(currencyService.getFXAmount("2025-05-16", "INR", 500.0, RateResolution.EXACT)).thenReturn(5.2181);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/async/getFXAmount")
+                        .param("date", "2025-05-16")
+                        .param("currency", "INR")
+                        .param("amount", "500.0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        load.complete(null);
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("5.2181"));
+    }
+
+    @Test
+    void testResponseIsNotBuiltOnTheFetchThread() throws Exception {
+        CompletableFuture<Void> load = new CompletableFuture<>();
+        Mockito.when(rateLoader.ensureLoaded("INR")).thenReturn(load);
+        AtomicReference<String> respondingThread = new AtomicReference<>();
+        Mockito.when(currencyService.getFXAmount("2025-05-16", "INR", 500.0, RateResolution.EXACT)).thenAnswer(invocation -> {
+            respondingThread.set(Thread.currentThread().getName());
+            return 5.2181;
+        });
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/async/getFXAmount")
+                        .param("date", "2025-05-16")
+                        .param("currency", "INR")
+                        .param("amount", "500.0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Thread fetchThread = new Thread(() -> load.complete(null), "fx-fetch-1");
+        fetchThread.start();
+        fetchThread.join();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk());
+        assertNotNull(respondingThread.get());
+        assertFalse(respondingThread.get().startsWith("fx-fetch-"), respondingThread.get());
+    }
+
+    @Test
+    void testGetAllFXRatesWithoutCurrencyReadsStoreDirectly() throws Exception {
+        Mockito.when(currencyService.getFXRates(null, null, RateResolution.EXACT))
+                .thenReturn(Map.of("INR", Map.of("2025-05-16", "95.8200")));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/async/getAllFXRates"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"INR\":{\"2025-05-16\":\"95.8200\"}}"));
+        Mockito.verifyNoInteractions(rateLoader);
+    }
+
+    @Test
+    void testFailedLoadIsReportedAsBadRequest() throws Exception {
+        Mockito.when(rateLoader.ensureLoaded("INR")).thenReturn(CompletableFuture.failedFuture(
+                new InvalidRequestException("Unable to retrieve FX rate data, please check logs for more details")));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/async/getAllFXRates")
+                        .param("currency", "INR"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Unable to retrieve FX rate data, please check logs for more details\"}"));
+    }
+}
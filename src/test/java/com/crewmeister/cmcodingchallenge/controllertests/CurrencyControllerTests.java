@@ -1,8 +1,17 @@
 package com.crewmeister.cmcodingchallenge.controllertests;
 
+import com.crewmeister.cmcodingchallenge.CacheConfig;
 import com.crewmeister.cmcodingchallenge.security.MyUserDetailsService;
 import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import com.crewmeister.cmcodingchallenge.currency.RateExportFormat;
+import com.crewmeister.cmcodingchallenge.currency.RateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
 import com.crewmeister.cmcodingchallenge.currencycontroller.CurrencyController;
+import com.crewmeister.cmcodingchallenge.currencycontroller.RateResponder;
+import com.crewmeister.cmcodingchallenge.currencycontroller.RateResponseCache;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionResultDto;
 import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -10,19 +19,25 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import com.crewmeister.cmcodingchallenge.currency.Currency;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
 
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CurrencyController.class)
+@Import({RateResponder.class, RateResponseCache.class, CacheConfig.class})
 public class CurrencyControllerTests {
 
     @Autowired
@@ -127,7 +142,7 @@ public class CurrencyControllerTests {
                 "GBP", Map.of("2025-05-16", "0.84270"),
                 "INR", Map.of("2025-05-15", "95.8200")
         );
-        Mockito.when(currencyService.getFXRates(null, null)).thenReturn(fxRateMock);
+        Mockito.when(currencyService.getFXRates(null, null, RateResolution.EXACT)).thenReturn(fxRateMock);
 
         String expected = new ObjectMapper().writeValueAsString(fxRateMock);
 
@@ -145,7 +160,7 @@ public class CurrencyControllerTests {
                 "GBP", Map.of("2025-05-16", "0.84270"),
                 "INR", Map.of("2025-05-16", "95.8200")
         );
-        Mockito.when(currencyService.getFXRates(date, null)).thenReturn(fxRateMock);
+        Mockito.when(currencyService.getFXRates(date, null, RateResolution.EXACT)).thenReturn(fxRateMock);
 
         String expected = new ObjectMapper().writeValueAsString(fxRateMock);
 
@@ -163,7 +178,7 @@ public class CurrencyControllerTests {
         Map<String, Map<String, String>> fxRateMock = Map.of(
                 "INR", Map.of("2025-05-16", "0.84270","2025-05-15","95.6470")
         );
-        Mockito.when(currencyService.getFXRates(null, currency)).thenReturn(fxRateMock);
+        Mockito.when(currencyService.getFXRates(null, currency, RateResolution.EXACT)).thenReturn(fxRateMock);
 
         String expected = new ObjectMapper().writeValueAsString(fxRateMock);
 
@@ -182,7 +197,7 @@ public class CurrencyControllerTests {
         Map<String, Map<String, String>> fxRateMock = Map.of(
                 "INR", Map.of("2025-05-16", "0.84270")
         );
-        Mockito.when(currencyService.getFXRates(date, currency)).thenReturn(fxRateMock);
+        Mockito.when(currencyService.getFXRates(date, currency, RateResolution.EXACT)).thenReturn(fxRateMock);
 
         String expected = new ObjectMapper().writeValueAsString(fxRateMock);
 
@@ -195,6 +210,97 @@ public class CurrencyControllerTests {
                 .andExpect(content().string(expected));
     }
 
+    @Test
+    void testGetAllFXRatesWithinDateRange() throws Exception {
+        Map<String, Map<String, String>> fxRateMock = Map.of(
+                "INR", Map.of("2025-05-15", "95.6470", "2025-05-16", "95.8200")
+        );
+        Mockito.when(currencyService.getFXRates(LocalDate.of(2025, 5, 15), LocalDate.of(2025, 5, 16), "INR")).thenReturn(fxRateMock);
+
+        String expected = new ObjectMapper().writeValueAsString(fxRateMock);
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getAllFXRates")
+                        .param("from", "2025-05-15")
+                        .param("to", "2025-05-16")
+                        .param("currency", "INR")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(expected));
+    }
+
+    @Test
+    void testGetAllFXRatesOfFinalRangeIsServedWithETag() throws Exception {
+        Map<String, Map<String, String>> fxRateMock = Map.of(
+                "INR", Map.of("2024-05-15", "90.6470", "2024-05-16", "90.8200")
+        );
+        Mockito.when(currencyService.isFinal("INR", LocalDate.of(2024, 5, 16))).thenReturn(true);
+        Mockito.when(currencyService.getFXRates(LocalDate.of(2024, 5, 15), LocalDate.of(2024, 5, 16), "INR")).thenReturn(fxRateMock);
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getAllFXRates")
+                        .param("from", "2024-05-15")
+                        .param("to", "2024-05-16")
+                        .param("currency", "INR"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().string(new ObjectMapper().writeValueAsString(fxRateMock)))
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getAllFXRates")
+                        .param("from", "2024-05-15")
+                        .param("to", "2024-05-16")
+                        .param("currency", "INR")
+                        .header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        Mockito.verify(currencyService, Mockito.times(1)).getFXRates(LocalDate.of(2024, 5, 15), LocalDate.of(2024, 5, 16), "INR");
+    }
+
+    @Test
+    void testGetAllFXRatesOfOpenRangeIsNotCached() throws Exception {
+        Mockito.when(currencyService.getFXRates(LocalDate.of(2024, 5, 15), null, "INR")).thenReturn(Map.of("INR", Map.of()));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getAllFXRates")
+                        .param("from", "2024-05-15")
+                        .param("currency", "INR"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void testGetRateMatrixWithinDateRange() throws Exception {
+        RateMatrix matrix = new RateMatrix(
+                new long[]{LocalDate.of(2025, 5, 15).toEpochDay(), LocalDate.of(2025, 5, 16).toEpochDay()},
+                new String[]{"GBP", "INR"},
+                new long[][]{{FixedPoint.MISSING, 84270L}, {956470L, 958200L}},
+                new int[]{5, 4});
+        Mockito.when(currencyService.getRateMatrix(LocalDate.of(2025, 5, 15), LocalDate.of(2025, 5, 16), null)).thenReturn(matrix);
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/v2/getAllFXRates")
+                        .param("from", "2025-05-15")
+                        .param("to", "2025-05-16")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"dates\":[\"2025-05-15\",\"2025-05-16\"],"
+                        + "\"rates\":{\"GBP\":[null,0.84270],\"INR\":[95.6470,95.8200]}}"));
+    }
+
+    @Test
+    void testGetAllFXRatesWithDateAndRange() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getAllFXRates")
+                        .param("date", "2025-05-16")
+                        .param("from", "2025-05-15")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Use either 'date' or the 'from'/'to' range, not both\"}"));
+    }
+
     @Test
     void testGetAllFXRatesWithInvalidDateFormat() throws Exception {
         String expected="{\"error\":\"Invalid value '05-05-2025' for parameter 'date'. Expected format is yyyy-MM-dd and type: LocalDate\"}";
@@ -289,7 +395,7 @@ public class CurrencyControllerTests {
     void testGetFXAmountWithValidInputs() throws Exception {
         double expectedAmount = 5.1966;
 
-        Mockito.when(currencyService.getFXAmount("2025-05-16", "INR", 500.0))
+        Mockito.when(currencyService.getFXAmount("2025-05-16", "INR", 500.0, RateResolution.EXACT))
                 .thenReturn(expectedAmount);
 
         mvc.perform(MockMvcRequestBuilders
@@ -298,8 +404,179 @@ public class CurrencyControllerTests {
                         .param("currency", "INR")
                         .param("amount", "500.0"))
                 .andExpect(status().isOk())
+                .andExpect(content().string("5.1966"))
+                .andExpect(header().doesNotExist("Warning"));
+
+    }
+
+    @Test
+    void testGetFXAmountFromStaleRatesCarriesWarning() throws Exception {
+        Mockito.when(currencyService.getFXAmount("2025-05-16", "INR", 500.0, RateResolution.EXACT))
+                .thenReturn(5.1966);
+        Mockito.when(currencyService.isStale("INR")).thenReturn(true);
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getFXAmount")
+                        .param("date", "2025-05-16")
+                        .param("currency", "INR")
+                        .param("amount", "500.0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Warning", "110 - \"Response is Stale\""))
                 .andExpect(content().string("5.1966"));
+    }
 
+    @Test
+    void testGetFXAmountsWithNoConversions() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .post("/cmfxapi/getFXAmounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"conversions\":[]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Conversion list must not be null or empty\"}"));
+    }
+
+    @Test
+    void testGetFXAmountsWithNullConversion() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .post("/cmfxapi/getFXAmounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"conversions\":[{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0},null]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"conversions[1]\":\"Conversion item must not be null\"}"));
+        Mockito.verifyNoInteractions(currencyService);
+    }
+
+    @Test
+    void testGetFXAmountsAboveTheBatchLimit() throws Exception {
+        String item = "{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0}";
+        String items = String.join(",", Collections.nCopies(1001, item));
+
+        mvc.perform(MockMvcRequestBuilders
+                        .post("/cmfxapi/getFXAmounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"conversions\":[" + items + "]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Conversion list must not contain more than 1000 items\"}"));
+    }
+
+    @Test
+    void testGetFXAmountsWithValidInputs() throws Exception {
+        Mockito.when(currencyService.getFXAmounts(Mockito.anyList()))
+                .thenAnswer(invocation -> {
+                    List<FXConversionDto> conversions = invocation.getArgument(0);
+                    return List.of(FXConversionResultDto.converted(conversions.get(0), 5.1966),
+                            FXConversionResultDto.failed(conversions.get(1), "Conversion rate not found for date 2025-05-17"));
+                });
+
+        mvc.perform(MockMvcRequestBuilders
+                        .post("/cmfxapi/getFXAmounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"conversions\":[{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0},"
+                                + "{\"date\":\"2025-05-17\",\"currency\":\"INR\",\"amount\":500.0}]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0,\"convertedAmount\":5.1966},"
+                        + "{\"date\":\"2025-05-17\",\"currency\":\"INR\",\"amount\":500.0,\"error\":\"Conversion rate not found for date 2025-05-17\"}]"));
+    }
+
+    @Test
+    void testStreamFXAmountsAnswersEachLineInOrder() throws Exception {
+        Mockito.when(currencyService.newBatchConversion()).thenReturn(conversion -> "INR".equals(conversion.getCurrency())
+                ? FXConversionResultDto.converted(conversion, 5.1966)
+                : FXConversionResultDto.failed(conversion, "Unsupported currency: " + conversion.getCurrency()));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .post("/cmfxapi/getFXAmounts")
+                        .contentType("application/x-ndjson")
+                        .content("{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0}\n"
+                                + "\n"
+                                + "{\"date\":\"2025-05-16\",\"currency\":\"XYZ\",\"amount\":500.0}\n"
+                                + "{\"date\":\"2025-05-16\",\n"
+                                + "null\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0,\"convertedAmount\":5.1966}\n"
+                        + "{\"date\":\"2025-05-16\",\"currency\":\"XYZ\",\"amount\":500.0,\"error\":\"Unsupported currency: XYZ\"}\n"
+                        + "{\"error\":\"Line 4 is not a conversion item\"}\n"
+                        + "{\"error\":\"Conversion item must not be null\"}\n"));
+    }
+
+    @Test
+    void testStreamFXAmountsIsNotBoundByTheBatchLimit() throws Exception {
+        Mockito.when(currencyService.newBatchConversion()).thenReturn(conversion -> FXConversionResultDto.converted(conversion, 5.1966));
+        String item = "{\"date\":\"2025-05-16\",\"currency\":\"INR\",\"amount\":500.0}\n";
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .post("/cmfxapi/getFXAmounts")
+                        .contentType("application/x-ndjson")
+                        .content(String.join("", Collections.nCopies(5000, item))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String results = mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(5000, results.lines().count());
+        Mockito.verify(currencyService, Mockito.times(1)).newBatchConversion();
+    }
+
+    @Test
+    void testExportFXRatesAsCsv() throws Exception {
+        Mockito.when(currencyService.exportFXRates("INR", null, null, RateExportFormat.CSV))
+                .thenReturn(out -> out.write("currency,date,rate\nINR,2025-05-16,95.8200\n".getBytes(StandardCharsets.UTF_8)));
+
+        MvcResult result = mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/exportFXRates")
+                        .param("format", "csv")
+                        .param("currency", "INR"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("currency,date,rate\nINR,2025-05-16,95.8200\n"));
+    }
+
+    @Test
+    void testExportFXRatesWithUnsupportedFormat() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/exportFXRates")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Unsupported export format: xml, expected ndjson or csv\"}"));
+    }
+
+    @Test
+    void testGetFXAmountWithPreviousBusinessDayResolution() throws Exception {
+        Mockito.when(currencyService.getFXAmount("2025-05-17", "INR", 500.0, RateResolution.PREVIOUS))
+                .thenReturn(5.2181);
+
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getFXAmount")
+                        .param("date", "2025-05-17")
+                        .param("currency", "INR")
+                        .param("amount", "500.0")
+                        .param("resolution", "previous"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("5.2181"));
+    }
+
+    @Test
+    void testGetAllFXRatesWithUnsupportedResolution() throws Exception {
+        mvc.perform(MockMvcRequestBuilders
+                        .get("/cmfxapi/getAllFXRates")
+                        .param("date", "2025-05-17")
+                        .param("resolution", "closest"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("{\"error\":\"Unsupported rate resolution: closest, expected exact, previous or next\"}"));
     }
 
     @Test
@@ -0,0 +1,114 @@
+package com.crewmeister.cmcodingchallenge.controllertests;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.crewmeister.cmcodingchallenge.currencycontroller.RequestSummaryFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestSummaryFilterTest {
+
+    private static final String SAMPLED_PATH = "/cmfxapi/getFXAmount";
+
+    private final Logger summaryLogger = (Logger) LoggerFactory.getLogger("fx.requests");
+
+    private final ListAppender<ILoggingEvent> summaries = new ListAppender<>();
+
+    private RequestSummaryFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestSummaryFilter();
+        ReflectionTestUtils.setField(filter, "sampledPaths", List.of(SAMPLED_PATH));
+        ReflectionTestUtils.setField(filter, "sampleEvery", 3);
+        ReflectionTestUtils.setField(filter, "slowMillis", 60_000L);
+        summaryLogger.setLevel(Level.INFO);
+        summaries.start();
+        summaryLogger.addAppender(summaries);
+    }
+
+    @AfterEach
+    void tearDown() {
+        summaryLogger.detachAppender(summaries);
+        summaryLogger.setLevel(null);
+    }
+
+    @Test
+    void testFastSuccessfulRequestsToSampledPathsAreWrittenOneInN() throws Exception {
+        for (int i = 0; i < 6; i++)
+            filter.doFilter(request(SAMPLED_PATH), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(2, summaries.list.size());
+        assertTrue(summaries.list.get(0).getFormattedMessage().contains("status=200"));
+        assertTrue(summaries.list.get(0).getFormattedMessage().endsWith("sampled=3"));
+    }
+
+    @Test
+    void testOtherPathsAreAlwaysWritten() throws Exception {
+        for (int i = 0; i < 3; i++)
+            filter.doFilter(request("/cmfxapi/getAllCurrencies"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request("/actuator/health"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(3, summaries.list.size());
+        assertTrue(summaries.list.get(0).getFormattedMessage().endsWith("sampled=1"));
+    }
+
+    @Test
+    void testFailedAndSlowRequestsAreNeverSampledAway() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            filter.doFilter(request(SAMPLED_PATH), response, new MockFilterChain());
+        }
+        ReflectionTestUtils.setField(filter, "slowMillis", 0L);
+        for (int i = 0; i < 3; i++)
+            filter.doFilter(request(SAMPLED_PATH), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(6, summaries.list.size());
+        assertTrue(summaries.list.get(0).getFormattedMessage().contains("status=400"));
+        assertTrue(summaries.list.stream().allMatch(event -> event.getFormattedMessage().endsWith("sampled=1")));
+    }
+
+    @Test
+    void testAsyncRequestIsSummarizedOnceWhenItCompletes() throws Exception {
+        ReflectionTestUtils.setField(filter, "sampleEvery", 1);
+        MockHttpServletRequest request = request("/cmfxapi/async/getFXAmount");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        assertTrue(summaries.list.isEmpty());
+
+        // the async dispatch that writes the result is not summarized on its own
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, new MockFilterChain());
+        assertTrue(summaries.list.isEmpty());
+
+        response.setStatus(HttpServletResponse.SC_ACCEPTED);
+        request.getAsyncContext().complete();
+
+        assertEquals(1, summaries.list.size());
+        assertTrue(summaries.list.get(0).getFormattedMessage().contains("path=/cmfxapi/async/getFXAmount"));
+        assertTrue(summaries.list.get(0).getFormattedMessage().contains("status=202"));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString("currency=USD");
+        return request;
+    }
+}
@@ -0,0 +1,111 @@
+package com.crewmeister.cmcodingchallenge.repositorytests;
+
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CurrencyRateTableTest {
+
+    @Test
+    void testLookupByDate() {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-15", "0.84120")
+                .add("2025-05-16", "0.84270")
+                .build();
+
+        assertEquals(0.8427, table.getRate(LocalDate.of(2025, 5, 16)));
+        assertEquals("0.84270", table.formatRate(table.getUnits(LocalDate.of(2025, 5, 16))));
+        assertEquals(LocalDate.of(2025, 5, 15), table.getFirstDate());
+        assertEquals(LocalDate.of(2025, 5, 16), table.getLastDate());
+    }
+
+    @Test
+    void testDaysWithoutRateAreNaN() {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-16", "95.8200")
+                .add("2025-05-17", null)
+                .add("2025-05-19", "95.6470")
+                .build();
+
+        assertEquals(4, table.length());
+        assertTrue(table.covers(LocalDate.of(2025, 5, 18)));
+        assertTrue(Double.isNaN(table.getRate(LocalDate.of(2025, 5, 17))));
+        assertTrue(Double.isNaN(table.getRate(LocalDate.of(2025, 5, 18))));
+    }
+
+    @Test
+    void testDatesOutsideTheSeries() {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-16", "95.8200")
+                .build();
+
+        assertFalse(table.covers(LocalDate.of(2025, 5, 15)));
+        assertTrue(Double.isNaN(table.getRate(LocalDate.of(2025, 5, 15))));
+        assertTrue(Double.isNaN(table.getRate(LocalDate.of(2025, 5, 17))));
+    }
+
+    @Test
+    void testEmptyTable() {
+        CurrencyRateTable table = CurrencyRateTable.builder().build();
+
+        assertTrue(table.isEmpty());
+        assertTrue(Double.isNaN(table.getRate(LocalDate.of(2025, 5, 16))));
+    }
+
+    @Test
+    void testMergeAppendsNewerObservations() {
+        CurrencyRateTable stored = CurrencyRateTable.builder()
+                .add("2025-05-15", "95.6470")
+                .add("2025-05-16", "95.8200")
+                .build();
+        CurrencyRateTable newer = CurrencyRateTable.builder()
+                .add("2025-05-19", "95.4100")
+                .build();
+
+        CurrencyRateTable merged = stored.mergedWith(newer);
+
+        assertEquals(LocalDate.of(2025, 5, 15), merged.getFirstDate());
+        assertEquals(LocalDate.of(2025, 5, 19), merged.getLastDate());
+        assertEquals(95.82, merged.getRate(LocalDate.of(2025, 5, 16)));
+        assertTrue(Double.isNaN(merged.getRate(LocalDate.of(2025, 5, 17))));
+        assertEquals(95.41, merged.getRate(LocalDate.of(2025, 5, 19)));
+    }
+
+    @Test
+    void testRatesAreHeldAtTheLargestPublishedScale() {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-15", "162.4")
+                .add("2025-05-16", "162.41")
+                .build();
+
+        assertEquals(2, table.getScale());
+        assertEquals(16240, table.getUnits(LocalDate.of(2025, 5, 15)));
+        assertEquals("162.40", table.formatRate(table.getUnits(LocalDate.of(2025, 5, 15))));
+
+        CurrencyRateTable merged = table.mergedWith(CurrencyRateTable.builder().add("2025-05-19", "161.985").build());
+        assertEquals(3, merged.getScale());
+        assertEquals("162.410", merged.formatRate(merged.getUnits(LocalDate.of(2025, 5, 16))));
+        assertEquals("161.985", merged.formatRate(merged.getUnits(LocalDate.of(2025, 5, 19))));
+    }
+
+    @Test
+    void testResolveOffsetFallsBackToNearestBusinessDay() {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-16", "95.8200")
+                .add("2025-05-17", null)
+                .add("2025-05-19", "95.6470")
+                .build();
+        LocalDate saturday = LocalDate.of(2025, 5, 17);
+
+        assertEquals(-1, table.resolveOffset(saturday, RateResolution.EXACT));
+        assertEquals(LocalDate.of(2025, 5, 16), table.getDateAt(table.resolveOffset(saturday, RateResolution.PREVIOUS)));
+        assertEquals(LocalDate.of(2025, 5, 19), table.getDateAt(table.resolveOffset(saturday, RateResolution.NEXT)));
+        assertEquals(LocalDate.of(2025, 5, 19), table.getDateAt(table.resolveOffset(LocalDate.of(2025, 5, 25), RateResolution.PREVIOUS)));
+        assertEquals(-1, table.resolveOffset(LocalDate.of(2025, 5, 25), RateResolution.NEXT));
+        assertEquals(-1, table.resolveOffset(LocalDate.of(2025, 5, 10), RateResolution.PREVIOUS));
+    }
+}
@@ -0,0 +1,59 @@
+package com.crewmeister.cmcodingchallenge.repositorytests;
+
+import com.crewmeister.cmcodingchallenge.currency.FXObservation;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationDao;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "fx.db.batch.size=2")
+@Import(FXObservationDao.class)
+public class FXObservationDaoTest {
+
+    @Autowired
+    private FXObservationDao observationDao;
+
+    @Autowired
+    private FXObservationRepository observationRepository;
+
+    @Test
+    void testUpsertStoresPublishedDaysOnly() {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-16", "95.8200")
+                .add("2025-05-17", null)
+                .add("2025-05-19", "95.4100")
+                .build();
+
+        assertEquals(2, observationDao.upsert("INR", table));
+
+        List<FXObservation> observations = observationRepository.findAll();
+        assertEquals(2, observations.size());
+        assertEquals(LocalDate.of(2025, 5, 19), observationRepository.findLastDate("INR").orElseThrow());
+        assertTrue(observationRepository.findLastDate("USD").isEmpty());
+    }
+
+    @Test
+    void testUpsertReplacesExistingObservation() {
+        observationDao.upsert("INR", CurrencyRateTable.builder().add("2025-05-16", "95.8200").build());
+        observationDao.upsert("INR", CurrencyRateTable.builder().add("2025-05-16", "95.8300").add("2025-05-19", "95.4100").build());
+
+        CurrencyRateTable loaded = observationDao.load("INR");
+        assertEquals(LocalDate.of(2025, 5, 16), loaded.getFirstDate());
+        assertEquals("95.8300", loaded.formatRate(loaded.getUnits(LocalDate.of(2025, 5, 16))));
+        assertTrue(Double.isNaN(loaded.getRate(LocalDate.of(2025, 5, 17))));
+        assertEquals(2, observationRepository.count());
+    }
+
+    @Test
+    void testLoadUnknownCurrencyIsEmpty() {
+        assertTrue(observationDao.load("USD").isEmpty());
+    }
+}
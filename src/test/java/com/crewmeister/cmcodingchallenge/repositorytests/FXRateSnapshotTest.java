@@ -0,0 +1,73 @@
+package com.crewmeister.cmcodingchallenge.repositorytests;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FXRateSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSaveSwapsInMappedTablesAndLoadRestoresThem() {
+        FXRateStore rateStore = new FXRateStore();
+        rateStore.putTable(CurrencyConstants.INR, CurrencyRateTable.builder()
+                .add("2025-05-16", "95.8200")
+                .add("2025-05-17", null)
+                .add("2025-05-19", "95.4100")
+                .build());
+        rateStore.putTable(CurrencyConstants.JPY, CurrencyRateTable.builder().add("2025-05-16", "162.40").build());
+        FXRateSnapshot snapshot = new FXRateSnapshot(directory.toString());
+
+        snapshot.save(rateStore);
+
+        assertTrue(Files.exists(directory.resolve("INR.fxr")));
+        assertTrue(rateStore.getTable(CurrencyConstants.INR).orElseThrow().isMapped());
+
+        FXRateStore restored = new FXRateStore();
+        assertEquals(2, snapshot.load(restored));
+        CurrencyRateTable inr = restored.getTable(CurrencyConstants.INR).orElseThrow();
+        assertEquals(LocalDate.of(2025, 5, 19), inr.getLastDate());
+        assertEquals("95.8200", inr.formatRate(inr.getUnits(LocalDate.of(2025, 5, 16))));
+        assertTrue(Double.isNaN(inr.getRate(LocalDate.of(2025, 5, 17))));
+        assertEquals(162.4, restored.getRate(CurrencyConstants.JPY, LocalDate.of(2025, 5, 16)));
+    }
+
+    @Test
+    void testLoadSingleCurrencyOnMiss() {
+        FXRateStore rateStore = new FXRateStore();
+        rateStore.putTable(CurrencyConstants.USD, CurrencyRateTable.builder().add("2025-05-16", "1.1200").build());
+        FXRateSnapshot snapshot = new FXRateSnapshot(directory.toString());
+        snapshot.save(rateStore);
+
+        FXRateStore restored = new FXRateStore();
+        assertTrue(snapshot.load(restored, CurrencyConstants.USD));
+        assertFalse(snapshot.load(restored, CurrencyConstants.GBP));
+        assertEquals(1, restored.size());
+    }
+
+    @Test
+    void testCorruptFileIsIgnored() throws Exception {
+        Files.write(directory.resolve("INR.fxr"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        FXRateStore rateStore = new FXRateStore();
+
+        assertEquals(0, new FXRateSnapshot(directory.toString()).load(rateStore));
+        assertEquals(0, rateStore.size());
+    }
+
+    @Test
+    void testDisabledWithoutDirectory() {
+        assertFalse(new FXRateSnapshot("").isEnabled());
+        assertEquals(0, new FXRateSnapshot("").load(new FXRateStore()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.crewmeister.cmcodingchallenge.repositorytests;
+
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.RateSeriesFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateSeriesFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testMappedTableMatchesWrittenTable() throws Exception {
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 200; i++) {
+            boolean weekend = day.getDayOfWeek().getValue() >= 6;
+            builder.add(day.toString(), weekend ? null : "1.0" + (100 + i));
+            day = day.plusDays(1);
+        }
+        CurrencyRateTable table = builder.build();
+        Path file = directory.resolve("USD.fxr");
+
+        RateSeriesFile.write(table, file);
+        CurrencyRateTable mapped = RateSeriesFile.map(file);
+
+        assertTrue(mapped.isMapped());
+        assertEquals(table.getFirstDate(), mapped.getFirstDate());
+        assertEquals(table.length(), mapped.length());
+        assertEquals(table.getScale(), mapped.getScale());
+        for (int offset = 0; offset < table.length(); offset++)
+            assertEquals(table.getUnitsAt(offset), mapped.getUnitsAt(offset));
+        assertEquals(LocalDate.of(2025, 1, 3),
+                mapped.getDateAt(mapped.resolveOffset(LocalDate.of(2025, 1, 5), RateResolution.PREVIOUS)));
+        assertEquals(24 + 4 * 8 + 200 * 4, Files.size(file));
+    }
+
+    @Test
+    void testLargeValuesUseEightBytes() throws Exception {
+        CurrencyRateTable table = CurrencyRateTable.builder()
+                .add("2025-05-16", "17250000.123456")
+                .build();
+        Path file = directory.resolve("IDR.fxr");
+
+        RateSeriesFile.write(table, file);
+
+        assertEquals("17250000.123456", RateSeriesFile.map(file).formatRate(RateSeriesFile.map(file).getUnitsAt(0)));
+        assertEquals(24 + 8 + 8, Files.size(file));
+    }
+
+    @Test
+    void testForeignFileIsRejected() throws Exception {
+        Path file = directory.resolve("USD.fxr");
+        Files.write(file, new byte[32]);
+
+        assertThrows(IOException.class, () -> RateSeriesFile.map(file));
+    }
+}
@@ -0,0 +1,127 @@
+package com.crewmeister.cmcodingchallenge.servicetests;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyservice.BundesbankClient;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the client as configured by Spring, with two attempts per download, a 300 to 400 ms backoff, one bulkhead
+ * permit waited for at most 100 ms and a circuit opening after two failed downloads.
+ */
+@SpringJUnitConfig(BundesbankClientCircuitBreakerTest.Config.class)
+@TestPropertySource(properties = {
+        "bundesbank.api.base.url=https://api.statistiken.bundesbank.de/rest/download/",
+        "bundesbank.api.key=BBEX3/D.%s.EUR.BB.AC.000",
+        "bundesbank.api.format=sdmx",
+        "bundesbank.api.lang=en",
+        "bundesbank.retry.max.attempts=2",
+        "bundesbank.retry.delay.ms=300",
+        "bundesbank.retry.max.delay.ms=400",
+        "bundesbank.bulkhead.permits=1",
+        "bundesbank.bulkhead.wait.ms=100",
+        "bundesbank.circuit.failures=2",
+        "bundesbank.circuit.open.timeout.ms=60000",
+        "bundesbank.circuit.reset.timeout.ms=60000"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BundesbankClientCircuitBreakerTest {
+
+    @Configuration
+    @Import(BundesbankClient.class)
+    static class Config {
+
+        @Bean
+        RestTemplate restTemplate() {
+            return mock(RestTemplate.class);
+        }
+
+        @Bean
+        FXRateMetrics rateMetrics() {
+            return new FXRateMetrics(new SimpleMeterRegistry());
+        }
+    }
+
+    @Autowired
+    private BundesbankClient bundesbankClient;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Test
+    void testRepeatedIOErrorsOpenTheCircuit() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        assertThrows(ResourceAccessException.class, () -> bundesbankClient.fetchRates("USD", null));
+        assertThrows(ResourceAccessException.class, () -> bundesbankClient.fetchRates("USD", null));
+        RestClientException open = assertThrows(RestClientException.class, () -> bundesbankClient.fetchRates("USD", null));
+        assertEquals("Bundesbank circuit is open, not downloading currency USD", open.getMessage());
+
+        // two attempts for each of the two downloads, none once the circuit is open
+        verify(restTemplate, times(4)).execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testClientErrorsAndMalformedPayloadsDoNotOpenTheCircuit() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND))
+                .thenThrow(new RestClientException("Malformed SDMX response for currency USD"))
+                .thenThrow(new RestClientException("Malformed SDMX response for currency USD"))
+                .thenReturn(CurrencyRateTable.builder().add("2025-05-16", "1.1200").build());
+
+        assertThrows(HttpClientErrorException.class, () -> bundesbankClient.fetchRates("USD", null));
+        assertThrows(HttpClientErrorException.class, () -> bundesbankClient.fetchRates("USD", null));
+        assertThrows(RestClientException.class, () -> bundesbankClient.fetchRates("USD", null));
+        assertThrows(RestClientException.class, () -> bundesbankClient.fetchRates("USD", null));
+        assertFalse(bundesbankClient.fetchRates("USD", null).isEmpty());
+
+        // none of them was retried
+        verify(restTemplate, times(5)).execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void testBulkheadPermitIsFreeWhileBackingOff() throws Exception {
+        CountDownLatch firstAttemptFailed = new CountDownLatch(1);
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    if (invocation.getArgument(0).toString().contains("D.USD.") && firstAttemptFailed.getCount() > 0) {
+                        firstAttemptFailed.countDown();
+                        throw new ResourceAccessException("Connection reset");
+                    }
+                    return CurrencyRateTable.builder().add("2025-05-16", "1.0000").build();
+                });
+
+        CompletableFuture<CurrencyRateTable> retried = CompletableFuture.supplyAsync(() -> bundesbankClient.fetchRates("USD", null));
+        assertTrue(firstAttemptFailed.await(5, TimeUnit.SECONDS));
+
+        // USD backs off for at least 300 ms; with its permit held the bulkhead would reject GBP after 100 ms
+        assertFalse(bundesbankClient.fetchRates("GBP", null).isEmpty());
+        assertFalse(retried.get(5, TimeUnit.SECONDS).isEmpty());
+    }
+}
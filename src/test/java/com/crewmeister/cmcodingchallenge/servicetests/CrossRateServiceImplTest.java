@@ -0,0 +1,111 @@
+package com.crewmeister.cmcodingchallenge.servicetests;
+
+import com.crewmeister.cmcodingchallenge.currency.CrossRateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.CrossRateServiceImpl;
+import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrossRateServiceImplTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 5, 16);
+
+    private FXRateStore rateStore;
+
+    private CrossRateServiceImpl crossRateService;
+
+    @BeforeEach
+    void setUp() {
+        rateStore = new FXRateStore();
+        rateStore.putTable(CurrencyConstants.USD, CurrencyRateTable.builder()
+                .add("2025-05-16", "1.1200").add("2025-05-17", null).build());
+        rateStore.putTable(CurrencyConstants.JPY, CurrencyRateTable.builder()
+                .add("2025-05-16", "162.40").add("2025-05-17", null).build());
+        crossRateService = new CrossRateServiceImpl(rateStore);
+    }
+
+    @Test
+    void testCrossAmountGoesThroughBothEurLegs() {
+        // 100 USD -> 89.2857 EUR -> 14500 JPY
+        assertEquals(14500.0, crossRateService.getCrossFXAmount(DATE, "USD", "JPY", 100));
+    }
+
+    @Test
+    void testEurCanBeEitherLeg() {
+        assertEquals(112.0, crossRateService.getCrossFXAmount(DATE, "EUR", "USD", 100));
+        assertEquals(100.0, crossRateService.getCrossFXAmount(DATE, "JPY", "EUR", 16240));
+    }
+
+    @Test
+    void testCrossAmountIsRoundedOnceInFixedPoint() {
+        // 1 JPY -> 0.00615764 EUR -> 0.00689655 USD, rounded HALF_UP only at the end
+        assertEquals(0.0069, crossRateService.getCrossFXAmount(DATE, "JPY", "USD", 1));
+        // 2e11 at 8 decimals does not fit a long
+        assertEquals(2.9e13, crossRateService.getCrossFXAmount(DATE, "USD", "JPY", 2e11));
+    }
+
+    @Test
+    void testCrossAmountWithoutRateOnDate() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> crossRateService.getCrossFXAmount(LocalDate.of(2025, 5, 17), "USD", "JPY", 100));
+        assertEquals("Conversion rate not found for date 2025-05-17", ex.getMessage());
+    }
+
+    @Test
+    void testCrossAmountForUnloadedCurrency() {
+        assertThrows(InvalidRequestException.class, () -> crossRateService.getCrossFXAmount(DATE, "USD", "GBP", 100));
+        assertThrows(InvalidRequestException.class, () -> crossRateService.getCrossFXAmount(DATE, "XYZ", "USD", 100));
+    }
+
+    @Test
+    void testMatrixHoldsEveryQuotedPair() {
+        CrossRateMatrix matrix = crossRateService.getCrossRateMatrix(DATE);
+
+        assertTrue(matrix.contains("EUR"));
+        assertFalse(matrix.contains("GBP"));
+        assertEquals(145.0, matrix.getTable().get("USD").get("JPY"));
+        assertEquals(1.0, matrix.getTable().get("JPY").get("JPY"));
+        assertEquals(3, matrix.getTable().size());
+    }
+
+    @Test
+    void testBatchPairLookup() {
+        Map<String, Double> rates = crossRateService.getCrossFXRates(DATE, List.of("USD/JPY", "JPY/USD", "EUR/USD"));
+
+        assertEquals(List.of("USD/JPY", "JPY/USD", "EUR/USD"), List.copyOf(rates.keySet()));
+        assertEquals(145.0, rates.get("USD/JPY"));
+        assertEquals(0.006897, rates.get("JPY/USD"));
+        assertEquals(1.12, rates.get("EUR/USD"));
+    }
+
+    @Test
+    void testBatchPairLookupRejectsMalformedPair() {
+        assertThrows(IllegalArgumentException.class, () -> crossRateService.getCrossFXRates(DATE, List.of("USDJPY")));
+    }
+
+    @Test
+    void testBatchPairLookupRejectsUnsupportedAndUnloadedCurrencies() {
+        InvalidRequestException unsupported = assertThrows(InvalidRequestException.class,
+                () -> crossRateService.getCrossFXRates(DATE, List.of("USD/JPY", "USD/XYZ")));
+        assertEquals("Unsupported currency: XYZ", unsupported.getMessage());
+        InvalidRequestException unloaded = assertThrows(InvalidRequestException.class,
+                () -> crossRateService.getCrossFXRates(DATE, List.of("GBP/USD")));
+        assertEquals("FX rates for currency GBP are not loaded yet, please retry later", unloaded.getMessage());
+    }
+
+    @Test
+    void testBatchPairLookupWithoutRateOnDate() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> crossRateService.getCrossFXRates(LocalDate.of(2025, 5, 17), List.of("USD/JPY")));
+        assertEquals("Cross rate USD/JPY not found for date 2025-05-17", ex.getMessage());
+    }
+}
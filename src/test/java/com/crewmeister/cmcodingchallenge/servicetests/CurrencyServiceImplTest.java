@@ -1,28 +1,61 @@
 package com.crewmeister.cmcodingchallenge.servicetests;
 
+import com.crewmeister.cmcodingchallenge.CacheConfig;
 import com.crewmeister.cmcodingchallenge.currency.Currency;
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currency.FixedPoint;
+import com.crewmeister.cmcodingchallenge.currency.RateExportFormat;
+import com.crewmeister.cmcodingchallenge.currency.RateMatrix;
+import com.crewmeister.cmcodingchallenge.currency.RateResolution;
 import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationDao;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXObservationRepository;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionDto;
+import com.crewmeister.cmcodingchallenge.currencydto.FXConversionResultDto;
+import com.crewmeister.cmcodingchallenge.currencyservice.BundesbankClient;
 import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyServiceImpl;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateMetrics;
 import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
-import com.crewmeister.cmcodingchallenge.xmldata.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,15 +67,31 @@ public class CurrencyServiceImplTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
+    @Spy
+    private FXRateStore rateStore = new FXRateStore();
+
+    @Mock
+    private FXObservationDao observationDao;
+
+    @Mock
+    private FXObservationRepository observationRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private CurrencyServiceImpl currencyService;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(currencyService, "bundesBaseUrl", "https://api.statistiken.bundesbank.de/rest/download/");
-        ReflectionTestUtils.setField(currencyService, "bundesApiKey", "BBEX3/D.%s.EUR.BB.AC.000");
-        ReflectionTestUtils.setField(currencyService, "bundesApiFormat", "sdmx");
-        ReflectionTestUtils.setField(currencyService, "bundesApiLang", "en");
+        BundesbankClient bundesbankClient = new BundesbankClient(restTemplate, new FXRateMetrics(meterRegistry), 3, 1, 2, 2, 0, 100, 60000, 30000);
+        ReflectionTestUtils.setField(bundesbankClient, "bundesBaseUrl", "https://api.statistiken.bundesbank.de/rest/download/");
+        ReflectionTestUtils.setField(bundesbankClient, "bundesApiKey", "BBEX3/D.%s.EUR.BB.AC.000");
+        ReflectionTestUtils.setField(bundesbankClient, "bundesApiFormat", "sdmx");
+        ReflectionTestUtils.setField(bundesbankClient, "bundesApiLang", "en");
+        currencyService = new CurrencyServiceImpl(bundesbankClient, currencyRepository, rateStore, observationDao,
+                observationRepository, cacheManager);
     }
 
     @Test
@@ -58,11 +107,48 @@ public class CurrencyServiceImplTest {
     @Test
     void testAddCurrency() {
         List<Currency> input = List.of(new Currency(3L, "BRL"));
-        when(currencyRepository.saveAll(input)).thenReturn(input);
+        when(currencyRepository.findByCurrencyNameIn(Set.of("BRL"))).thenReturn(List.of());
+        when(currencyRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         List<Currency> result = currencyService.addCurrency(input);
         assertEquals("BRL", result.get(0).getCurrencyName());
-        verify(currencyRepository, times(1)).saveAll(input);
+        verify(currencyRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAddCurrencyInsertsOnlyNewDistinctNamesAndUpdatesCaches() {
+        Cache available = new ConcurrentMapCache(CacheConfig.AVAILABLE_CURRENCIES);
+        Cache byName = new ConcurrentMapCache(CacheConfig.CURRENCY_BY_NAME);
+        available.put(SimpleKey.EMPTY, List.of(new Currency(1L, "AUD")));
+        when(cacheManager.getCache(CacheConfig.AVAILABLE_CURRENCIES)).thenReturn(available);
+        when(cacheManager.getCache(CacheConfig.CURRENCY_BY_NAME)).thenReturn(byName);
+        when(currencyRepository.findByCurrencyNameIn(Set.of("AUD", "BRL"))).thenReturn(List.of(new Currency(1L, "AUD")));
+        when(currencyRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Currency> created = invocation.getArgument(0);
+            created.get(0).setCurrencyId(51L);
+            return created;
+        });
+
+        List<Currency> result = currencyService.addCurrency(List.of(
+                new Currency(null, "AUD"), new Currency(null, "BRL"), new Currency(null, "BRL")));
+
+        ArgumentCaptor<List<Currency>> saved = ArgumentCaptor.forClass(List.class);
+        verify(currencyRepository).saveAll(saved.capture());
+        assertEquals(1, saved.getValue().size());
+        assertEquals(List.of(1L, 51L), List.of(result.get(0).getCurrencyId(), result.get(1).getCurrencyId()));
+        assertNull(available.get(SimpleKey.EMPTY));
+        assertEquals(51L, ((Optional<Currency>) byName.get("BRL").get()).get().getCurrencyId());
+    }
+
+    @Test
+    void testAddCurrencyWithOnlyKnownNamesInsertsNothing() {
+        when(currencyRepository.findByCurrencyNameIn(Set.of("AUD"))).thenReturn(List.of(new Currency(1L, "AUD")));
+
+        List<Currency> result = currencyService.addCurrency(List.of(new Currency(null, "AUD")));
+
+        assertEquals(1L, result.get(0).getCurrencyId());
+        verify(currencyRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -79,30 +165,10 @@ public class CurrencyServiceImplTest {
     void testGetFXRatesWithValidCurrencyAndDate() {
         Currency ccy = new Currency(1L, "INR");
         when(currencyRepository.findCurrencyName("INR")).thenReturn(Optional.of(ccy));
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"))));
 
-        ObsValue obsValue = new ObsValue();
-        obsValue.rate="95.8200";
-        ObsDimension obsDimension = new ObsDimension();
-        obsDimension.date="2025-05-16";
-
-        Observation obs = new Observation();
-        obs.value = obsValue;
-        obs.dimension = obsDimension;
-
-        Series series = new Series();
-        series.observations = List.of(obs);
-
-        DataSet dataSet = new DataSet();
-        dataSet.series = series;
-
-        GenericData genericData = new GenericData();
-        genericData.dataSet = dataSet;
-
-
-
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenReturn(new ResponseEntity<>(genericData, HttpStatus.OK));
-
+        currencyService.refreshRates("INR");
         Map<String, Map<String, String>> result = currencyService.getFXRates("2025-05-16", "INR");
 
         assertTrue(result.containsKey("INR"));
@@ -113,28 +179,10 @@ public class CurrencyServiceImplTest {
     void testGetFXRatesWithValidCurrencyAndWeekendDate() {
         Currency ccy = new Currency(1L, "INR");
         when(currencyRepository.findCurrencyName("INR")).thenReturn(Optional.of(ccy));
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", null))));
 
-
-        ObsDimension obsDimension = new ObsDimension();
-        obsDimension.date="2025-05-16";
-
-        Observation obs = new Observation();
-        obs.dimension = obsDimension;
-
-        Series series = new Series();
-        series.observations = List.of(obs);
-
-        DataSet dataSet = new DataSet();
-        dataSet.series = series;
-
-        GenericData genericData = new GenericData();
-        genericData.dataSet = dataSet;
-
-
-
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenReturn(new ResponseEntity<>(genericData, HttpStatus.OK));
-
+        currencyService.refreshRates("INR");
         Map<String, Map<String, String>> result = currencyService.getFXRates("2025-05-16", "INR");
 
         assertTrue(result.containsKey("INR"));
@@ -144,55 +192,12 @@ public class CurrencyServiceImplTest {
     @Test
     void testGetFXRatesWithValidDateAndCurrencyAsNull() {
         List<Currency> mockList = List.of(new Currency(1L, "INR"), new Currency(2L, "GBP"));
-        when(currencyService.getListOfAvailableCurrencies()).thenReturn(mockList);
-
-        ObsValue obsValue1 = new ObsValue();
-        obsValue1.rate="95.8201";
-        ObsDimension obsDimension1 = new ObsDimension();
-        obsDimension1.date="2025-05-16";
-
-        ObsValue obsValue2 = new ObsValue();
-        obsValue2.rate="0.8427";
-        ObsDimension obsDimension2 = new ObsDimension();
-        obsDimension2.date="2025-05-16";
-
-        Observation obs1 = new Observation();
-        obs1.dimension = obsDimension1;
-        obs1.value = obsValue1;
-
-        Observation obs2 = new Observation();
-        obs2.dimension = obsDimension2;
-        obs2.value = obsValue2;
-
-        Series series1 = new Series();
-        Series series2 = new Series();
-        series1.observations = List.of(obs1);
-        series2.observations = List.of(obs2);
-
-        DataSet dataSet1 = new DataSet();
-        DataSet dataSet2 = new DataSet();
-        dataSet1.series = series1;
-        dataSet2.series = series2;
-
-        GenericData genericData1 = new GenericData();
-        GenericData genericData2 = new GenericData();
-        genericData1.dataSet = dataSet1;
-        genericData2.dataSet = dataSet2;
-
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenAnswer(invocation -> {
-                    String url = invocation.getArgument(0, String.class);
-                    if (url.contains("INR")) {
-                        return new ResponseEntity<>(genericData1, HttpStatus.OK);
-                    } else if (url.contains("GBP")) {
-                        return new ResponseEntity<>(genericData2, HttpStatus.OK);
-                    } else {
-                        return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
-                    }
-                });
+        when(currencyRepository.findAll()).thenReturn(mockList);
+        stubRatesByCurrency(sdmx(obs("2025-05-16", "95.8201")), sdmx(obs("2025-05-16", "0.8427")));
 
+        currencyService.refreshRates("INR");
+        currencyService.refreshRates("GBP");
         Map<String, Map<String, String>> result = currencyService.getFXRates("2025-05-16", "");
-        System.out.println(result);
         assertEquals(2, result.size());
         assertEquals(result.get("INR").get("2025-05-16"),"95.8201");
         assertEquals(result.get("GBP").get("2025-05-16"),"0.8427");
@@ -201,53 +206,11 @@ public class CurrencyServiceImplTest {
     @Test
     void testGetFXRatesWithDateAndCurrencyBothAsNull() {
         List<Currency> mockList = List.of(new Currency(1L, "INR"), new Currency(2L, "GBP"));
-        when(currencyService.getListOfAvailableCurrencies()).thenReturn(mockList);
-
-        ObsValue obsValue1 = new ObsValue();
-        obsValue1.rate="95.8201";
-        ObsDimension obsDimension1 = new ObsDimension();
-        obsDimension1.date="2025-05-15";
-
-        ObsValue obsValue2 = new ObsValue();
-        obsValue2.rate="0.8427";
-        ObsDimension obsDimension2 = new ObsDimension();
-        obsDimension2.date="2025-05-16";
-
-        Observation obs1 = new Observation();
-        obs1.dimension = obsDimension1;
-        obs1.value = obsValue1;
-
-        Observation obs2 = new Observation();
-        obs2.dimension = obsDimension2;
-        obs2.value = obsValue2;
-
-        Series series1 = new Series();
-        Series series2 = new Series();
-        series1.observations = List.of(obs1);
-        series2.observations = List.of(obs2);
-
-        DataSet dataSet1 = new DataSet();
-        DataSet dataSet2 = new DataSet();
-        dataSet1.series = series1;
-        dataSet2.series = series2;
-
-        GenericData genericData1 = new GenericData();
-        GenericData genericData2 = new GenericData();
-        genericData1.dataSet = dataSet1;
-        genericData2.dataSet = dataSet2;
-
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenAnswer(invocation -> {
-                    String url = invocation.getArgument(0, String.class);
-                    if (url.contains("INR")) {
-                        return new ResponseEntity<>(genericData1, HttpStatus.OK);
-                    } else if (url.contains("GBP")) {
-                        return new ResponseEntity<>(genericData2, HttpStatus.OK);
-                    } else {
-                        return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
-                    }
-                });
+        when(currencyRepository.findAll()).thenReturn(mockList);
+        stubRatesByCurrency(sdmx(obs("2025-05-15", "95.8201")), sdmx(obs("2025-05-16", "0.8427")));
 
+        currencyService.refreshRates("INR");
+        currencyService.refreshRates("GBP");
         Map<String, Map<String, String>> result = currencyService.getFXRates(null, "");
         assertEquals(2, result.size());
         assertEquals("95.8201",result.get("INR").get("2025-05-15"));
@@ -255,70 +218,230 @@ public class CurrencyServiceImplTest {
     }
 
     @Test
-    void testGetFXAmountWithValidInputs() {
-        ObsValue obsValue = new ObsValue();
-        obsValue.rate="95.8200";
-        ObsDimension obsDimension = new ObsDimension();
-        obsDimension.date="2025-05-16";
+    void testGetFXRatesWithinDateRange() {
+        when(currencyRepository.findCurrencyName("INR")).thenReturn(Optional.of(new Currency(1L, "INR")));
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", "95.8200"),
+                        obs("2025-05-17", null), obs("2025-05-19", "95.4100"))));
 
-        Observation obs = new Observation();
-        obs.dimension = obsDimension;
-        obs.value = obsValue;
+        currencyService.refreshRates("INR");
+        Map<String, Map<String, String>> result = currencyService.getFXRates(LocalDate.of(2025, 5, 16), LocalDate.of(2025, 5, 18), "INR");
 
-        Series series = new Series();
-        series.observations = List.of(obs);
+        assertEquals(Map.of("2025-05-16", "95.8200"), result.get("INR"));
+    }
 
-        DataSet dataSet = new DataSet();
-        dataSet.series = series;
+    @Test
+    void testRatesAreFinalOnlyUpToTheLastPublishedRate() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", "95.8200"),
+                        obs("2025-05-17", null))));
+
+        currencyService.refreshRates("INR");
+
+        assertTrue(currencyService.isFinal("INR", LocalDate.of(2025, 5, 1)));
+        assertTrue(currencyService.isFinal("INR", LocalDate.of(2025, 5, 16)));
+        assertFalse(currencyService.isFinal("INR", LocalDate.of(2025, 5, 17)));
+        assertFalse(currencyService.isFinal("USD", LocalDate.of(2025, 5, 16)));
+        assertFalse(currencyService.isFinal(null, LocalDate.of(2025, 5, 16)));
+    }
 
-        GenericData genericData = new GenericData();
-        genericData.dataSet = dataSet;
+    @Test
+    void testGetRateMatrixSharesOneDateAxisAcrossCurrencies() {
+        when(currencyRepository.findAll()).thenReturn(List.of(new Currency(1L, "INR"), new Currency(2L, "GBP")));
+        stubRatesByCurrency(sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", "95.8200"), obs("2025-05-19", "95.4100")),
+                sdmx(obs("2025-05-16", "0.84270"), obs("2025-05-20", "0.84310")));
+
+        currencyService.refreshRates("INR");
+        currencyService.refreshRates("GBP");
+        RateMatrix matrix = currencyService.getRateMatrix(LocalDate.of(2025, 5, 16), LocalDate.of(2025, 5, 20), null);
+
+        assertEquals(3, matrix.getDateCount());
+        assertEquals(LocalDate.of(2025, 5, 16), matrix.getDate(0));
+        assertEquals(LocalDate.of(2025, 5, 19), matrix.getDate(1));
+        assertEquals(LocalDate.of(2025, 5, 20), matrix.getDate(2));
+        assertEquals("GBP", matrix.getCurrency(0));
+        assertEquals("INR", matrix.getCurrency(1));
+        assertEquals(84270L, matrix.getUnits(0, 0));
+        assertEquals(FixedPoint.MISSING, matrix.getUnits(0, 1));
+        assertEquals(954100L, matrix.getUnits(1, 1));
+        assertEquals(FixedPoint.MISSING, matrix.getUnits(1, 2));
+    }
 
+    @Test
+    void testGetRateMatrixWithFallbackResolution() {
+        when(currencyRepository.findCurrencyName("INR")).thenReturn(Optional.of(new Currency(1L, "INR")));
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"), obs("2025-05-19", "95.4100"))));
+
+        currencyService.refreshRates("INR");
+
+        RateMatrix previous = currencyService.getRateMatrix(LocalDate.of(2025, 5, 17), "INR", RateResolution.PREVIOUS);
+        assertEquals(1, previous.getDateCount());
+        assertEquals(LocalDate.of(2025, 5, 16), previous.getDate(0));
+        assertEquals(958200L, previous.getUnits(0, 0));
+        assertEquals(0, currencyService.getRateMatrix(LocalDate.of(2025, 5, 17), "INR", RateResolution.EXACT).getDateCount());
+    }
 
+    @Test
+    void testGetFXRatesWithInvertedDateRange() {
+        assertThrows(IllegalArgumentException.class, () ->
+                currencyService.getFXRates(LocalDate.of(2025, 5, 19), LocalDate.of(2025, 5, 16), "INR"));
+    }
 
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenReturn(new ResponseEntity<>(genericData, HttpStatus.OK));
+    @Test
+    void testGetFXAmountWithValidInputs() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"))));
 
+        currencyService.refreshRates("INR");
         double result = currencyService.getFXAmount("2025-05-16","INR",500);
         assertEquals(5.2181,result);
     }
 
     @Test
-    void testGetFXAmountWithGenericDataAsNull() {
-        GenericData genericData = new GenericData();
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenReturn(new ResponseEntity<>(genericData, HttpStatus.OK));
-        RuntimeException exception = assertThrows(RuntimeException.class, () ->
-                currencyService.getFXAmount("2025-05-16", "INR", 500.00)
-        );
+    void testGetFXAmountRoundsHalfUpExactly() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "2.0000"))));
 
-        assertEquals("Generic data is unavailable for currency: INR", exception.getMessage());
+        currencyService.refreshRates("USD");
+        // 2.0001 / 2 is exactly 1.00005, which a double division would round down
+        assertEquals(1.0001, currencyService.getFXAmount("2025-05-16", "USD", 2.0001));
     }
 
     @Test
-    void testGetFXAmountWithRateAsNull() {
+    void testGetFXAmountWithAmountTooLargeForFixedPoint() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "1.0000"), obs("2025-05-19", "4.0000"))));
+
+        currencyService.refreshRates("USD");
+        // 2e11 at 8 decimals exceeds a long
+        assertEquals(2e11, currencyService.getFXAmount("2025-05-16", "USD", 2e11));
+        assertEquals(5e10, currencyService.getFXAmount("2025-05-19", "USD", 2e11));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.fromDouble(2e11, 8));
+    }
 
-        ObsDimension obsDimension = new ObsDimension();
-        obsDimension.date="2025-05-16";
+    @Test
+    void testWeekendDateResolvesToNearestBusinessDay() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"), obs("2025-05-17", null), obs("2025-05-19", "95.4100"))));
+        when(currencyRepository.findCurrencyName("INR")).thenReturn(Optional.of(new Currency(1L, "INR")));
+
+        currencyService.refreshRates("INR");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> currencyService.getFXAmount("2025-05-18", "INR", 500, RateResolution.EXACT));
+        assertEquals(5.2181, currencyService.getFXAmount("2025-05-18", "INR", 500, RateResolution.PREVIOUS));
+        assertEquals(5.2405, currencyService.getFXAmount("2025-05-18", "INR", 500, RateResolution.NEXT));
+        assertEquals(Map.of("INR", Map.of("2025-05-16", "95.8200")),
+                currencyService.getFXRates("2025-05-18", "INR", RateResolution.PREVIOUS));
+    }
 
-        Observation obs = new Observation();
-        obs.dimension = obsDimension;
-        obs.value = null;
+    @Test
+    void testFirstRefreshRestoresSeriesFromDatabase() {
+        when(observationRepository.findLastDate("INR")).thenReturn(Optional.of(LocalDate.of(2025, 5, 16)));
+        when(observationDao.load("INR")).thenReturn(CurrencyRateTable.builder()
+                .add("2025-05-15", "95.6470").add("2025-05-16", "95.8200").build());
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-19", "95.4100"))));
+
+        currencyService.refreshRates("INR");
+
+        ArgumentCaptor<URI> url = ArgumentCaptor.forClass(URI.class);
+        verify(restTemplate).execute(url.capture(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+        assertTrue(url.getValue().toString().contains("startPeriod=2025-05-17"));
+        verify(observationDao).upsert(eq("INR"), any(CurrencyRateTable.class));
+        assertEquals(5.2181, currencyService.getFXAmount("2025-05-16", "INR", 500));
+        assertEquals(5.2405, currencyService.getFXAmount("2025-05-19", "INR", 500));
+    }
 
-        Series series = new Series();
-        series.observations = List.of(obs);
+    @Test
+    void testFirstRefreshWithoutStoredObservationsDownloadsFullSeries() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"))));
+
+        currencyService.refreshRates("INR");
+
+        ArgumentCaptor<URI> url = ArgumentCaptor.forClass(URI.class);
+        verify(restTemplate).execute(url.capture(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+        assertFalse(url.getValue().toString().contains("startPeriod"));
+        verify(observationDao, never()).load(anyString());
+    }
+
+    @Test
+    void testRefreshRatesOnlyRequestsNewObservations() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", "95.8200"))))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-19", "95.4100"))))
+                .thenAnswer(respondWith(sdmx()));
+
+        currencyService.refreshRates("INR");
+        currencyService.refreshRates("INR");
+        currencyService.refreshRates("INR");
+
+        ArgumentCaptor<URI> urls = ArgumentCaptor.forClass(URI.class);
+        verify(restTemplate, times(3)).execute(urls.capture(), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
+        assertFalse(urls.getAllValues().get(0).toString().contains("startPeriod"));
+        assertTrue(urls.getAllValues().get(1).toString().contains("startPeriod=2025-05-17"));
+        assertTrue(urls.getAllValues().get(2).toString().contains("startPeriod=2025-05-20"));
+        assertEquals(5.2181, currencyService.getFXAmount("2025-05-16", "INR", 500));
+        assertEquals(5.2405, currencyService.getFXAmount("2025-05-19", "INR", 500));
+    }
 
-        DataSet dataSet = new DataSet();
-        dataSet.series = series;
+    @Test
+    void testGetFXAmountsReportsItemErrorsInline() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"), obs("2025-05-17", null))));
+        currencyService.refreshRates("INR");
+
+        List<FXConversionResultDto> results = currencyService.getFXAmounts(List.of(
+                new FXConversionDto("2025-05-16", "INR", 500.0),
+                new FXConversionDto("2025-05-17", "INR", 500.0),
+                new FXConversionDto("2025-05-16", "GBP", 500.0),
+                new FXConversionDto("2025-05-16", "INR", -1.0),
+                new FXConversionDto("2025-05-16", "INR", 1000.0)));
+
+        assertEquals(5, results.size());
+        assertEquals(5.2181, results.get(0).getConvertedAmount());
+        assertEquals("Conversion rate not found for date 2025-05-17", results.get(1).getError());
+        assertEquals("FX rates for currency GBP are not loaded yet, please retry later", results.get(2).getError());
+        assertEquals("Amount must be a positive number", results.get(3).getError());
+        assertEquals(10.4362, results.get(4).getConvertedAmount());
+        verify(rateStore, times(1)).getTable(CurrencyConstants.GBP);
+    }
 
-        GenericData genericData = new GenericData();
-        genericData.dataSet = dataSet;
+    @Test
+    void testExportFXRatesAsNdjsonWithinRange() throws IOException {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", "95.8200"),
+                        obs("2025-05-17", null), obs("2025-05-19", "95.4100"))));
+        currencyService.refreshRates("INR");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        currencyService.exportFXRates("INR", LocalDate.of(2025, 5, 16), LocalDate.of(2025, 5, 19), RateExportFormat.NDJSON)
+                .writeTo(out);
+
+        assertEquals("{\"currency\":\"INR\",\"date\":\"2025-05-16\",\"rate\":95.8200}\n"
+                + "{\"currency\":\"INR\",\"date\":\"2025-05-19\",\"rate\":95.4100}\n", out.toString(StandardCharsets.UTF_8));
+    }
 
+    @Test
+    void testRefreshRatesWithEmptySeries() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx()));
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                currencyService.refreshRates("INR")
+        );
 
+        assertEquals("Generic data is unavailable for currency: INR", exception.getMessage());
+        assertFalse(rateStore.hasTable(CurrencyConstants.INR));
+    }
 
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
-                .thenReturn(new ResponseEntity<>(genericData, HttpStatus.OK));
+    @Test
+    void testGetFXAmountWithRateAsNull() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", null))));
 
+        currencyService.refreshRates("INR");
         RuntimeException exception = assertThrows(IllegalArgumentException.class, () ->
                 currencyService.getFXAmount("2025-05-16", "INR", 500.00)
         );
@@ -328,32 +451,121 @@ public class CurrencyServiceImplTest {
 
     @Test
     void testFetchRatesThrowsException() {
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
                 .thenThrow(new RestClientException("Invalid URL"));
 
         InvalidRequestException exception = assertThrows(InvalidRequestException.class, () ->
-                currencyService.getFXAmount("2025-05-16", "INR", 500.00)
+                currencyService.refreshRates("INR")
         );
 
         assertEquals("Unable to retrieve FX rate data, please check logs for more details", exception.getMessage());
     }
 
+    @Test
+    void testRefreshRatesRecordsFetchMetrics() {
+        String payload = sdmx(obs("2025-05-15", "95.6470"), obs("2025-05-16", "95.8200"));
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(payload))
+                .thenThrow(new RestClientException("Invalid URL"));
+
+        currencyService.refreshRates("INR");
+        assertThrows(InvalidRequestException.class, () -> currencyService.refreshRates("INR"));
+
+        assertEquals(1, meterRegistry.get("fx.fetch").tags("currency", "INR", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("fx.fetch").tags("currency", "INR", "outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("fx.parse").tag("currency", "INR").timer().count());
+        assertEquals(2, meterRegistry.get("fx.parse.observations").tag("currency", "INR").summary().totalAmount());
+        assertEquals(payload.getBytes(StandardCharsets.UTF_8).length,
+                meterRegistry.get("fx.fetch.response.size").tag("currency", "INR").summary().totalAmount());
+    }
+
+    @Test
+    void testFailedRefreshKeepsServingStoredSeriesAsStale() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-16", "95.8200"))))
+                .thenThrow(new ResourceAccessException("Read timed out"))
+                .thenThrow(new ResourceAccessException("Read timed out"))
+                .thenThrow(new ResourceAccessException("Read timed out"))
+                .thenAnswer(respondWith(sdmx(obs("2025-05-19", "95.4100"))));
+
+        currencyService.refreshRates("INR");
+        assertThrows(InvalidRequestException.class, () -> currencyService.refreshRates("INR"));
+
+        assertTrue(currencyService.isStale("INR"));
+        assertTrue(currencyService.isStale(null));
+        assertFalse(currencyService.isStale("USD"));
+        assertEquals(5.2181, currencyService.getFXAmount("2025-05-16", "INR", 500));
+        assertEquals(2, meterRegistry.get("fx.fetch.retries").tag("currency", "INR").counter().count());
+
+        currencyService.refreshRates("INR");
+
+        assertFalse(currencyService.isStale("INR"));
+        assertEquals(5.2405, currencyService.getFXAmount("2025-05-19", "INR", 500));
+    }
+
+    @Test
+    void testFetchRatesWithMalformedResponse() {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(respondWith("<message:GenericData"));
+
+        assertThrows(InvalidRequestException.class, () -> currencyService.refreshRates("INR"));
+    }
+
+    @Test
+    void testGetFXAmountDoesNotCallBundesbankWhenRatesAreNotLoaded() {
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () ->
+                currencyService.getFXAmount("2025-05-16", "INR", 500.00)
+        );
+
+        assertEquals("FX rates for currency INR are not loaded yet, please retry later", exception.getMessage());
+        verifyNoInteractions(restTemplate);
+    }
+
     @Test
     void testRestTemplateTimeout() {
-        when(currencyRepository.findCurrencyName("INR"))
-                .thenReturn(Optional.of(new Currency(1L, "INR")));
-        when(restTemplate.getForEntity(anyString(), eq(GenericData.class)))
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
                 .thenThrow(new ResourceAccessException("Read timed out"));
 
         assertThrows(
                 RuntimeException.class,
-                () -> currencyService.getFXRates("2025-05-16", "INR"),
+                () -> currencyService.refreshRates("INR"),
                 "Expected timeout to result in RuntimeException"
         );
 
-        verify(restTemplate, atLeast(1)).getForEntity(anyString(), eq(GenericData.class));
+        verify(restTemplate, atLeast(1)).execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class));
     }
 
+    private void stubRatesByCurrency(String inrPayload, String gbpPayload) {
+        when(restTemplate.execute(any(URI.class), eq(HttpMethod.GET), isNull(), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    String url = invocation.getArgument(0, URI.class).toString();
+                    if (url.contains("INR")) {
+                        return respondWith(inrPayload).answer(invocation);
+                    } else if (url.contains("GBP")) {
+                        return respondWith(gbpPayload).answer(invocation);
+                    } else {
+                        throw new RestClientException("404 Not Found");
+                    }
+                });
+    }
 
-}
+    private static Answer<Object> respondWith(String payload) {
+        return invocation -> {
+            ResponseExtractor<?> extractor = invocation.getArgument(3);
+            return extractor.extractData(new MockClientHttpResponse(payload.getBytes(StandardCharsets.UTF_8), HttpStatus.OK));
+        };
+    }
 
+    private static String sdmx(String... observations) {
+        return "<message:GenericData xmlns:message=\"http://www.sdmx.org/resources/sdmxml/schemas/v2_1/message\""
+                + " xmlns:generic=\"http://www.sdmx.org/resources/sdmxml/schemas/v2_1/data/generic\">"
+                + "<message:DataSet><generic:Series>" + String.join("", observations) + "</generic:Series></message:DataSet>"
+                + "</message:GenericData>";
+    }
+
+    private static String obs(String date, String rate) {
+        return "<generic:Obs><generic:ObsDimension value=\"" + date + "\"/>"
+                + (rate != null ? "<generic:ObsValue value=\"" + rate + "\"/>" : "")
+                + "</generic:Obs>";
+    }
+}
@@ -0,0 +1,123 @@
+package com.crewmeister.cmcodingchallenge.servicetests;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXFetchExecutor;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import com.crewmeister.cmcodingchallenge.exception.InvalidRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FXRateLoaderTest {
+
+    private CurrencyService currencyService;
+
+    private FXRateStore rateStore;
+
+    private FXFetchExecutor fetchExecutor;
+
+    private FXRateLoader rateLoader;
+
+    @BeforeEach
+    void setUp() {
+        currencyService = mock(CurrencyService.class);
+        rateStore = new FXRateStore();
+        fetchExecutor = new FXFetchExecutor(2);
+        rateLoader = new FXRateLoader(currencyService, rateStore, fetchExecutor, new FXRateSnapshot(""));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdown();
+    }
+
+    @Test
+    void testLoadedCurrencyIsNotFetchedAgain() {
+        rateStore.putTable(CurrencyConstants.INR, CurrencyRateTable.builder().add("2025-05-16", "95.8200").build());
+
+        assertTrue(rateLoader.ensureLoaded("INR").isDone());
+        verifyNoInteractions(currencyService);
+    }
+
+    @Test
+    void testMissingCurrencyIsFetchedOnTheFetchExecutor() throws Exception {
+        rateLoader.ensureLoaded("INR").get();
+
+        verify(currencyService).refreshRates("INR");
+    }
+
+    @Test
+    void testUnsupportedCurrencyFailsTheFuture() {
+        CompletableFuture<Void> load = rateLoader.ensureLoaded("XYZ");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, load::get);
+        assertTrue(ex.getCause() instanceof InvalidRequestException);
+        verifyNoInteractions(currencyService);
+    }
+
+    @Test
+    void testConcurrentCallersShareOneDownload() throws Exception {
+        CountDownLatch downloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            downloading.countDown();
+            release.await();
+            rateStore.putTable(CurrencyConstants.USD, CurrencyRateTable.builder().add("2025-05-16", "1.1200").build());
+            return null;
+        }).when(currencyService).refreshRates("USD");
+
+        CompletableFuture<Void> leader = rateLoader.ensureLoaded("USD");
+        downloading.await();
+        CompletableFuture<Void> follower = rateLoader.ensureLoaded("USD");
+        assertSame(leader, follower);
+        assertEquals(1, rateLoader.getInFlightCount());
+
+        release.countDown();
+        CompletableFuture.allOf(leader, follower).get();
+        verify(currencyService, times(1)).refreshRates("USD");
+        assertEquals(1, rateLoader.getStartedCount());
+        assertEquals(1, rateLoader.getCoalescedCount());
+        assertTrue(rateLoader.ensureLoaded("USD").isDone());
+    }
+
+    @Test
+    void testRefreshPropagatesDownloadFailure() {
+        doThrow(new RuntimeException("Generic data is unavailable for currency: USD")).when(currencyService).refreshRates("USD");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> rateLoader.refresh("USD").get());
+        assertEquals("Generic data is unavailable for currency: USD", ex.getCause().getMessage());
+        assertEquals(0, rateLoader.getInFlightCount());
+    }
+
+    @Test
+    void testErrorInDownloadCompletesTheFlight() {
+        doThrow(new OutOfMemoryError("Java heap space")).when(currencyService).refreshRates("USD");
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> rateLoader.ensureLoaded("USD").get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof OutOfMemoryError);
+        assertEquals(0, rateLoader.getInFlightCount());
+    }
+
+    @Test
+    void testRejectedDownloadFailsTheFlight() {
+        fetchExecutor.shutdown();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> rateLoader.refresh("USD").get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof RejectedExecutionException);
+        assertEquals(0, rateLoader.getInFlightCount());
+        verifyNoInteractions(currencyService);
+    }
+}
@@ -0,0 +1,115 @@
+package com.crewmeister.cmcodingchallenge.servicetests;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXFetchExecutor;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateRefreshJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FXRateRefreshJobTest {
+
+    private final CurrencyService currencyService = mock(CurrencyService.class);
+
+    private final FXRateStore rateStore = new FXRateStore();
+
+    private FXFetchExecutor fetchExecutor;
+
+    private FXRateLoader rateLoader;
+
+    private FXRateRefreshJob refreshJob;
+
+    private void setUp(int concurrency) {
+        fetchExecutor = new FXFetchExecutor(concurrency);
+        rateLoader = new FXRateLoader(currencyService, rateStore, fetchExecutor, new FXRateSnapshot(""));
+        refreshJob = new FXRateRefreshJob(currencyService, rateLoader, new FXRateSnapshot(""), rateStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdown();
+    }
+
+    @Test
+    void testCurrenciesAreRefreshedConcurrently() {
+        setUp(2);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothRunning.countDown();
+            if (!bothRunning.await(5, TimeUnit.SECONDS))
+                throw new IllegalStateException("Downloads did not run concurrently");
+            return null;
+        }).when(currencyService).refreshRates(anyString());
+
+        Map<String, String> outcomes = refreshJob.refreshRates(List.of("USD", "GBP"), 10_000);
+
+        assertEquals(Map.of("GBP", "OK", "USD", "OK"), outcomes);
+    }
+
+    @Test
+    void testRunStopsWaitingAtTheDeadline() throws Exception {
+        setUp(2);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(currencyService).refreshRates("USD");
+
+        long start = System.nanoTime();
+        Map<String, String> outcomes = refreshJob.refreshRates(List.of("USD", "GBP"), 200);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Map.of("GBP", "OK", "USD", "TIMED_OUT"), outcomes);
+        assertTrue(elapsedMs < 5_000, "waited " + elapsedMs + " ms");
+        assertEquals(1, rateLoader.getInFlightCount());
+        release.countDown();
+        rateLoader.refresh("USD").get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testFailedDownloadIsReported() {
+        setUp(2);
+        doThrow(new RuntimeException("Generic data is unavailable for currency: GBP")).when(currencyService).refreshRates("GBP");
+
+        Map<String, String> outcomes = refreshJob.refreshRates(List.of("USD", "GBP"), 10_000);
+
+        assertEquals(Map.of("GBP", "FAILED", "USD", "OK"), outcomes);
+    }
+
+    @Test
+    void testRefreshJoinsOnDemandDownloadWithoutHoldingAPoolThread() throws Exception {
+        setUp(1);
+        CountDownLatch downloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            downloading.countDown();
+            release.await();
+            return null;
+        }).when(currencyService).refreshRates("USD");
+        CompletableFuture<Void> onDemand = rateLoader.ensureLoaded("USD");
+        assertTrue(downloading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Map<String, String>> run = CompletableFuture.supplyAsync(() ->
+                refreshJob.refreshRates(List.of("USD", "GBP"), 10_000));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rateLoader.getCoalescedCount() == 0 && System.nanoTime() < deadline)
+            Thread.sleep(5);
+        release.countDown();
+
+        assertEquals(Map.of("GBP", "OK", "USD", "OK"), run.get(5, TimeUnit.SECONDS));
+        assertTrue(onDemand.isDone());
+        verify(currencyService, times(1)).refreshRates("USD");
+        assertEquals(1, rateLoader.getCoalescedCount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.crewmeister.cmcodingchallenge.servicetests;
+
+import com.crewmeister.cmcodingchallenge.currency.CurrencyConstants;
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateSnapshot;
+import com.crewmeister.cmcodingchallenge.currencyrepository.FXRateStore;
+import com.crewmeister.cmcodingchallenge.currencyservice.CurrencyService;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXFetchExecutor;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateLoader;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateRefreshJob;
+import com.crewmeister.cmcodingchallenge.currencyservice.FXRateWarmUp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class FXRateWarmUpTest {
+
+    private final CurrencyService currencyService = mock(CurrencyService.class);
+
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+    private final FXRateStore rateStore = new FXRateStore();
+
+    private FXFetchExecutor fetchExecutor;
+
+    private FXRateWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        fetchExecutor = new FXFetchExecutor(2);
+        FXRateSnapshot snapshot = new FXRateSnapshot("");
+        FXRateLoader rateLoader = new FXRateLoader(currencyService, rateStore, fetchExecutor, snapshot);
+        FXRateRefreshJob refreshJob = new FXRateRefreshJob(currencyService, rateLoader, snapshot, rateStore);
+        warmUp = new FXRateWarmUp(refreshJob, rateStore, snapshot, taskScheduler);
+        ReflectionTestUtils.setField(warmUp, "refreshOnStartup", true);
+        ReflectionTestUtils.setField(warmUp, "warmUpCurrencies", List.of("USD", "GBP"));
+        ReflectionTestUtils.setField(warmUp, "warmUpDeadlineMs", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdown();
+    }
+
+    @Test
+    void testWarmUpReturnsAtTheDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(currencyService).refreshRates("USD");
+
+        long start = System.nanoTime();
+        warmUp.run(null);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertTrue(elapsedMs >= 200 && elapsedMs < 5_000, "warm-up took " + elapsedMs + " ms");
+        verify(currencyService).refreshRates("GBP");
+        // the background refresh is scheduled even though USD was not loaded in time
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testWarmUpSkipsCurrenciesAlreadyStored() {
+        rateStore.putTable(CurrencyConstants.USD, CurrencyRateTable.builder().add("2025-05-16", "1.1200").build());
+
+        warmUp.run(null);
+
+        verify(currencyService, never()).refreshRates("USD");
+        verify(currencyService).refreshRates("GBP");
+    }
+
+    @Test
+    void testWarmUpIsSkippedWhenDisabled() {
+        ReflectionTestUtils.setField(warmUp, "refreshOnStartup", false);
+
+        warmUp.run(null);
+
+        verifyNoInteractions(currencyService, taskScheduler);
+    }
+}
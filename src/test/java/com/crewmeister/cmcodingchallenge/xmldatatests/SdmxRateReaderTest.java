@@ -0,0 +1,57 @@
+package com.crewmeister.cmcodingchallenge.xmldatatests;
+
+import com.crewmeister.cmcodingchallenge.currencyrepository.CurrencyRateTable;
+import com.crewmeister.cmcodingchallenge.xmldata.SdmxRateReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SdmxRateReaderTest {
+
+    private static final String FIXTURE = "/sdmx/BBEX3.D.USD.EUR.BB.AC.000.xml";
+
+    private final SdmxRateReader reader = new SdmxRateReader();
+
+    @Test
+    void testReadsEveryObservation() throws IOException {
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        int count;
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            count = reader.read(in, builder);
+        }
+        CurrencyRateTable table = builder.build();
+
+        assertEquals(8, count);
+        assertEquals(LocalDate.of(2025, 5, 12), table.getFirstDate());
+        assertEquals(LocalDate.of(2025, 5, 19), table.getLastDate());
+        assertEquals("1.1200", table.formatRate(table.getUnits(LocalDate.of(2025, 5, 16))));
+        assertTrue(Double.isNaN(table.getRate(LocalDate.of(2025, 5, 17))));
+    }
+
+    @Test
+    void testStopsAfterRequestedDate() throws IOException {
+        CurrencyRateTable.Builder builder = CurrencyRateTable.builder();
+        int count;
+        try (InputStream in = getClass().getResourceAsStream(FIXTURE)) {
+            count = reader.read(in, builder, LocalDate.of(2025, 5, 14));
+        }
+        CurrencyRateTable table = builder.build();
+
+        assertEquals(3, count);
+        assertEquals(LocalDate.of(2025, 5, 14), table.getLastDate());
+        assertEquals(1.1226, table.getRate(LocalDate.of(2025, 5, 14)));
+    }
+
+    @Test
+    void testMalformedPayload() {
+        InputStream in = new ByteArrayInputStream("<message:GenericData".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> reader.read(in, CurrencyRateTable.builder()));
+    }
+}